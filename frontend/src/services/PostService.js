@@ -13,6 +13,35 @@ const PostService = {
     return axios.get('/api/posts');
   },
 
+  /**
+   * 以游標分頁方式獲取動態牆
+   * @param {String} cursor 上一頁返回的 nextCursor，第一頁不需提供
+   * @param {Number} limit 每頁筆數
+   * @returns {Promise} 包含 items、nextCursor 與 hasMore 的 Promise
+   */
+  getFeed(cursor = null, limit = 20) {
+    const params = { limit };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    return axios.get('/api/posts/feed', { params });
+  },
+
+  /**
+   * 以游標分頁方式獲取動態牆，並附上每篇發文的留言數量與前幾則留言
+   * @param {String} cursor 上一頁返回的 nextCursor，第一頁不需提供
+   * @param {Number} limit 每頁筆數
+   * @param {Number} previewSize 每篇發文預覽的留言數
+   * @returns {Promise} 每個項目包含 commentCount 與 comments 的分頁 Promise
+   */
+  getFeedWithComments(cursor = null, limit = 20, previewSize = 3) {
+    const params = { limit, includeComments: true, previewSize };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    return axios.get('/api/posts/feed', { params });
+  },
+
   /**
    * 獲取特定使用者的發文
    * @param {Number} userId 使用者 ID
@@ -0,0 +1,48 @@
+package com.example.social_backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+/**
+ * 本地快取配置類
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  // 單篇發文快取（以發文ID為鍵）
+  public static final String POSTS_CACHE = "posts";
+
+  // 用戶發文列表快取（以用戶ID為鍵）
+  public static final String USER_POSTS_CACHE = "userPosts";
+
+  // 快取規格，格式參考 Caffeine 的 CaffeineSpec
+  @Value("${cache.posts.spec:maximumSize=10000,expireAfterWrite=10m}")
+  private String postsSpec;
+
+  @Value("${cache.user-posts.spec:maximumSize=2000,expireAfterWrite=5m}")
+  private String userPostsSpec;
+
+  /**
+   * 配置快取管理器
+   * 每個快取都有容量與存活時間上限，並記錄命中、未命中及淘汰次數。
+   * 快取寫入和清除會延後到事務提交之後才執行，避免未提交或已回滾的資料進入快取。
+   */
+  @Bean
+  public CacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    // 只允許使用下方明確註冊的快取，避免拼錯名稱時建立無上限的快取
+    cacheManager.setCacheNames(Collections.emptyList());
+    cacheManager.registerCustomCache(POSTS_CACHE, Caffeine.from(postsSpec).recordStats().build());
+    cacheManager.registerCustomCache(USER_POSTS_CACHE, Caffeine.from(userPostsSpec).recordStats().build());
+    return new TransactionAwareCacheManagerProxy(cacheManager);
+  }
+}
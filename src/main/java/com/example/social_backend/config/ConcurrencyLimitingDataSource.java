@@ -0,0 +1,103 @@
+package com.example.social_backend.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 限制同時使用資料庫連線的執行緒數
+ * 取得連線前先取得許可，連線關閉時歸還。
+ * sqlite-jdbc 在 synchronized 區塊中呼叫原生方法，虛擬執行緒執行查詢時會釘住（pin）載體執行緒；
+ * 限制並行數可避免所有載體執行緒都被資料庫呼叫佔住，其餘虛擬執行緒則在 Semaphore 上等待而不佔用載體。
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final long acquireTimeoutMillis;
+
+  /**
+   * @param targetDataSource     實際的資料來源
+   * @param permits              共用的並行許可
+   * @param acquireTimeoutMillis 等待許可的最長時間（毫秒）
+   */
+  public ConcurrencyLimitingDataSource(DataSource targetDataSource, Semaphore permits, long acquireTimeoutMillis) {
+    super(targetDataSource);
+    this.permits = permits;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return limitedConnection(obtainTargetDataSource().getConnection());
+    } catch (SQLException | RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return limitedConnection(obtainTargetDataSource().getConnection(username, password));
+    } catch (SQLException | RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    try {
+      if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw new SQLTransientConnectionException("資料庫並行存取已達上限，等待 " + acquireTimeoutMillis + " 毫秒後逾時");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("等待資料庫存取許可時被中斷", e);
+    }
+  }
+
+  /**
+   * 包裝連線，第一次關閉時歸還許可
+   */
+  private Connection limitedConnection(Connection target) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+        new Class<?>[] { ConnectionProxy.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getTargetConnection":
+              return target;
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "close":
+              try {
+                target.close();
+              } finally {
+                if (released.compareAndSet(false, true)) {
+                  permits.release();
+                }
+              }
+              return null;
+            default:
+              try {
+                return method.invoke(target, args);
+              } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+              }
+          }
+        });
+  }
+}
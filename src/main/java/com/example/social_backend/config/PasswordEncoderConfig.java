@@ -0,0 +1,118 @@
+package com.example.social_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 密碼編碼器配置類
+ * 新密碼以 password.encoder.algorithm 指定的演算法雜湊，並加上 {id} 前綴；
+ * 驗證時依前綴選擇演算法，因此切換演算法後舊密碼仍可登入，並在下次登入時重新雜湊；
+ * 調高 BCrypt 成本、Argon2 參數或變更 PBKDF2 迭代次數後，舊雜湊同樣在下次登入時重新雜湊。
+ * 沒有前綴的舊 BCrypt 雜湊以 BCrypt 驗證。
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+  // 新密碼使用的演算法：bcrypt、argon2 或 pbkdf2
+  @Value("${password.encoder.algorithm:bcrypt}")
+  private String algorithm = "bcrypt";
+
+  // BCrypt 成本因子（4-31），每加一計算量加倍
+  @Value("${password.bcrypt.strength:10}")
+  private int bcryptStrength = 10;
+
+  // Argon2id 記憶體用量（KiB）
+  @Value("${password.argon2.memory-kib:19456}")
+  private int argon2MemoryKib = 19456;
+
+  @Value("${password.argon2.iterations:2}")
+  private int argon2Iterations = 2;
+
+  @Value("${password.argon2.parallelism:1}")
+  private int argon2Parallelism = 1;
+
+  // PBKDF2-HMAC-SHA256 迭代次數，記錄在雜湊中（{pbkdf2}迭代次數$雜湊）
+  @Value("${password.pbkdf2.iterations:600000}")
+  private int pbkdf2Iterations = 600000;
+
+  /**
+   * 配置密碼編碼器
+   */
+  @Bean
+  public PasswordEncoder passwordEncoder() {
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    encoders.put("bcrypt", bcrypt);
+    encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+    encoders.put("pbkdf2", new IterationTaggedPbkdf2PasswordEncoder(pbkdf2Iterations));
+    if (!encoders.containsKey(algorithm)) {
+      throw new IllegalArgumentException("不支援的密碼雜湊演算法: " + algorithm);
+    }
+
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+    passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return passwordEncoder;
+  }
+
+  /**
+   * 將迭代次數記錄在雜湊前的 PBKDF2-HMAC-SHA256 編碼器
+   * Spring 的 Pbkdf2PasswordEncoder 不保存迭代次數，變更設定後舊雜湊會無法驗證；
+   * 此編碼器以雜湊中記錄的迭代次數驗證，迭代次數與目前設定不同時要求重新雜湊。
+   * 沒有記錄迭代次數的舊雜湊是以當時的預設值 {@value #LEGACY_ITERATIONS} 次產生。
+   */
+  static class IterationTaggedPbkdf2PasswordEncoder implements PasswordEncoder {
+
+    static final int LEGACY_ITERATIONS = 600000;
+
+    private final int iterations;
+    private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    IterationTaggedPbkdf2PasswordEncoder(int iterations) {
+      this.iterations = iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return iterations + "$" + encoder(iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      if (encodedPassword == null) {
+        return false;
+      }
+      int separator = encodedPassword.indexOf('$');
+      if (separator < 0) {
+        return encoder(LEGACY_ITERATIONS).matches(rawPassword, encodedPassword);
+      }
+      int storedIterations;
+      try {
+        storedIterations = Integer.parseInt(encodedPassword.substring(0, separator));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+      return storedIterations > 0
+          && encoder(storedIterations).matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+      return encodedPassword == null || !encodedPassword.startsWith(iterations + "$");
+    }
+
+    private Pbkdf2PasswordEncoder encoder(int count) {
+      return encoders.computeIfAbsent(count, key -> new Pbkdf2PasswordEncoder("", 16, key,
+          Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+  }
+}
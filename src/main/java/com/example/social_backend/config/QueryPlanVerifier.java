@@ -0,0 +1,265 @@
+package com.example.social_backend.config;
+
+import com.example.social_backend.service.PostExportService;
+import com.example.social_backend.service.SearchService;
+import com.example.social_backend.service.TimelineService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 查詢計劃檢查器
+ * 啟動時對每個查詢執行 EXPLAIN QUERY PLAN，
+ * 若有查詢退化為全表掃描或需要額外排序（例如索引遺失），則啟動失敗。
+ * 儲存庫查詢方法以樣本參數呼叫一次，由 Hibernate 的 StatementInspector 擷取實際產生的SQL後中止執行，
+ * 因此檢查的就是執行時的語句。檢查在所有單例建立後、Web 伺服器開始接受連線前執行。
+ */
+@Component
+@ConditionalOnProperty(name = "db.query-plan-check.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanVerifier implements SmartInitializingSingleton, HibernatePropertiesCustomizer {
+
+  // 未使用索引的全表掃描，例如 "SCAN post"（"SCAN post USING INDEX ..." 及子查詢掃描不算）
+  private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?!\\()\\S+$");
+
+  private static final String TEMP_SORT = "USE TEMP B-TREE FOR ORDER BY";
+
+  private static final Pattern NAMED_PARAMETER = Pattern.compile(":\\w+");
+
+  /**
+   * 以 JdbcTemplate 直接執行的查詢（SQL常數即為實際執行的語句）
+   * 儲存庫查詢由 Hibernate 產生，啟動時從實際執行的語句擷取，不列在此處
+   */
+  static final List<PlannedQuery> JDBC_QUERIES = List.of(
+      new PlannedQuery("PostExportService.exportFirstPage", PostExportService.EXPORT_FIRST_PAGE_SQL, false),
+      new PlannedQuery("PostExportService.exportPageBefore", PostExportService.EXPORT_PAGE_BEFORE_SQL, false),
+      new PlannedQuery("SearchService.searchPosts", SearchService.POST_SEARCH_SQL, false),
+      new PlannedQuery("SearchService.searchComments", SearchService.COMMENT_SEARCH_SQL, false),
+      new PlannedQuery("TimelineService.timelineFirstPage", TimelineService.TIMELINE_FIRST_PAGE_SQL, false),
+      new PlannedQuery("TimelineService.timelinePageBefore", TimelineService.TIMELINE_PAGE_BEFORE_SQL, false),
+      new PlannedQuery("TimelineService.authorFirstPage", TimelineService.AUTHOR_FIRST_PAGE_SQL, false),
+      new PlannedQuery("TimelineService.authorPageBefore", TimelineService.AUTHOR_PAGE_BEFORE_SQL, false),
+      new PlannedQuery("TimelineService.largeFollowees", TimelineService.LARGE_FOLLOWEES_SQL, false),
+      new PlannedQuery("TimelineService.fanOut", TimelineService.FAN_OUT_SQL, false));
+
+  /**
+   * 允許使用臨時排序的儲存庫查詢
+   * 留言預覽的視窗函數只對索引篩選出的留言排序
+   */
+  private static final Set<String> SORT_ALLOWED = Set.of("CommentRepository.findPreviewRowsByPostIds");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ListableBeanFactory beanFactory;
+  private final CapturingStatementInspector statementInspector = new CapturingStatementInspector();
+
+  @Autowired
+  public QueryPlanVerifier(JdbcTemplate jdbcTemplate, ListableBeanFactory beanFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.beanFactory = beanFactory;
+  }
+
+  /**
+   * 在 Hibernate 中註冊擷取SQL的 StatementInspector
+   */
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    verify();
+  }
+
+  /**
+   * 檢查所有查詢的執行計劃
+   *
+   * @throws IllegalStateException 任一查詢退化為全表掃描或額外排序時拋出
+   */
+  public void verify() {
+    check(plannedQueries());
+  }
+
+  /**
+   * 需要檢查的所有查詢：擷取的儲存庫查詢及直接執行的查詢
+   */
+  List<PlannedQuery> plannedQueries() {
+    List<PlannedQuery> queries = new ArrayList<>(repositoryQueries());
+    queries.addAll(JDBC_QUERIES);
+    return queries;
+  }
+
+  /**
+   * 擷取每個儲存庫查詢方法實際產生的SQL
+   * 修改資料的查詢（@Modifying）不在檢查範圍內。
+   */
+  List<PlannedQuery> repositoryQueries() {
+    Repositories repositories = new Repositories(beanFactory);
+    List<PlannedQuery> queries = new ArrayList<>();
+    for (Class<?> domainType : repositories) {
+      RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+      Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+      for (Method method : information.getQueryMethods()) {
+        if (method.isAnnotationPresent(Modifying.class)) {
+          continue;
+        }
+        String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+        String sql = statementInspector.capture(name, () -> invoke(repository, method));
+        queries.add(new PlannedQuery(name, sql, SORT_ALLOWED.contains(name)));
+      }
+    }
+    queries.sort(Comparator.comparing(PlannedQuery::name));
+    return queries;
+  }
+
+  /**
+   * 檢查指定查詢的執行計劃
+   *
+   * @throws IllegalStateException 任一查詢退化為全表掃描或額外排序時拋出
+   */
+  void check(List<PlannedQuery> queries) {
+    List<String> problems = new ArrayList<>();
+    for (PlannedQuery query : queries) {
+      for (String detail : explain(query.sql())) {
+        if (FULL_SCAN.matcher(detail).matches()
+            || (!query.sortAllowed() && detail.contains(TEMP_SORT))) {
+          problems.add(query.name() + ": " + detail);
+        }
+      }
+    }
+    if (!problems.isEmpty()) {
+      throw new IllegalStateException("查詢計劃未使用索引: " + String.join("; ", problems));
+    }
+  }
+
+  /**
+   * 取得查詢的執行計劃，具名參數替換為未綁定的佔位符（不影響計劃）
+   */
+  private List<String> explain(String sql) {
+    String plainSql = NAMED_PARAMETER.matcher(sql).replaceAll("?");
+    return jdbcTemplate.query("EXPLAIN QUERY PLAN " + plainSql, (rs, rowNum) -> rs.getString("detail"));
+  }
+
+  /**
+   * 以樣本參數呼叫儲存庫方法，參數值不影響產生的SQL及其執行計劃
+   */
+  private static void invoke(Object repository, Method method) {
+    Object[] arguments = new Object[method.getParameterCount()];
+    Class<?>[] types = method.getParameterTypes();
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = sampleArgument(types[i]);
+    }
+    try {
+      method.invoke(repository, arguments);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Object sampleArgument(Class<?> type) {
+    if (type == Long.class || type == long.class) {
+      return 1L;
+    }
+    if (type == Integer.class || type == int.class) {
+      return 1;
+    }
+    if (type == String.class) {
+      return "";
+    }
+    if (type == LocalDateTime.class) {
+      return LocalDateTime.now();
+    }
+    if (Collection.class.isAssignableFrom(type)) {
+      return List.of(1L);
+    }
+    throw new IllegalStateException("無法為查詢參數產生樣本值: " + type.getName());
+  }
+
+  /**
+   * 擷取SQL的 StatementInspector
+   * 只在擷取期間的執行緒上記錄語句並以例外中止執行，查詢不會送到資料庫；其他時候原樣返回SQL。
+   */
+  static class CapturingStatementInspector implements StatementInspector {
+
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+      List<String> statements = captured.get();
+      if (statements == null) {
+        return sql;
+      }
+      statements.add(sql);
+      throw new StatementCapturedException();
+    }
+
+    /**
+     * 執行操作並返回其第一條SQL
+     *
+     * @param name   查詢名稱（用於錯誤訊息）
+     * @param action 會執行查詢的操作
+     * @throws IllegalStateException 操作沒有執行任何SQL時拋出
+     */
+    String capture(String name, Runnable action) {
+      List<String> statements = new ArrayList<>();
+      captured.set(statements);
+      try {
+        action.run();
+      } catch (RuntimeException e) {
+        if (statements.isEmpty()) {
+          throw e;
+        }
+      } finally {
+        captured.remove();
+      }
+      if (statements.isEmpty()) {
+        throw new IllegalStateException("查詢沒有執行SQL: " + name);
+      }
+      return statements.get(0);
+    }
+  }
+
+  /**
+   * 擷取SQL後中止查詢執行
+   */
+  private static class StatementCapturedException extends RuntimeException {
+
+    StatementCapturedException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * 待檢查的查詢
+   *
+   * @param name        查詢名稱（儲存庫及方法名）
+   * @param sql         查詢SQL
+   * @param sortAllowed 是否允許使用臨時排序
+   */
+  record PlannedQuery(String name, String sql, boolean sortAllowed) {
+  }
+}
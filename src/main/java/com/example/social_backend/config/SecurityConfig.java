@@ -1,16 +1,18 @@
 package com.example.social_backend.config;
 
 import com.example.social_backend.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 
 /**
  * Spring Security 配置類
@@ -20,6 +22,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
+  private static final IpAddressMatcher IPV4_LOOPBACK = new IpAddressMatcher("127.0.0.0/8");
+  private static final IpAddressMatcher IPV6_LOOPBACK = new IpAddressMatcher("::1");
+
   private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
   @Autowired
@@ -27,14 +32,6 @@ public class SecurityConfig {
     this.jwtAuthenticationFilter = jwtAuthenticationFilter;
   }
 
-  /**
-   * 配置密碼編碼器
-   */
-  @Bean
-  public BCryptPasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
-  }
-
   /**
    * 配置安全過濾器鏈
    */
@@ -47,11 +44,25 @@ public class SecurityConfig {
         .cors().and()
         // 配置請求授權
         .authorizeHttpRequests()
+        // 非同步派發（例如串流響應完成後）沿用原始請求的授權結果，令牌過濾器不會在非同步派發時再次執行
+        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
         // 允許訪問公開API端點
         .requestMatchers("/api/register", "/api/login", "/api/validate-token").permitAll()
         // 允許GET方法訪問帖子列表
         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts").permitAll()
+        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts/feed").permitAll()
+        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts/trending").permitAll()
+        // 匯出全部發文需要登入（須在 /api/posts/{id} 之前匹配）
+        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts/export").authenticated()
         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts/{id}").permitAll()
+        // 即時事件只含ID（內容仍透過公開的GET端點取得），瀏覽器 EventSource 也無法附帶 Authorization 標頭
+        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/events").permitAll()
+        // 健康檢查供負載平衡器使用；其他管理端點（監控指標）只允許本機存取，
+        // 管理埠也只綁定在本機位址，即使設定被改為與應用程式共用埠也不會對外公開
+        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+        .requestMatchers("/actuator/**").access((authentication, context) ->
+            new AuthorizationDecision(IPV4_LOOPBACK.matches(context.getRequest())
+                || IPV6_LOOPBACK.matches(context.getRequest())))
         // 所有其他請求都需要身份驗證
         .anyRequest().authenticated()
         .and()
@@ -0,0 +1,152 @@
+package com.example.social_backend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Semaphore;
+
+/**
+ * SQLite 資料來源配置類
+ * 使用WAL日誌模式，讀寫分離為兩個連線池：
+ * 寫入池只有一條連線，符合SQLite同一時間只允許一個寫入者的模型，寫入在池內排隊而不是回報 SQLITE_BUSY；
+ * 讀取池以唯讀模式開啟多條連線，在WAL模式下不會被寫入阻塞。
+ * 唯讀事務（@Transactional(readOnly = true)）的連線取自讀取池，其餘取自寫入池。
+ * 啟用虛擬執行緒時，讀取另外受並行許可限制，避免查詢釘住所有載體執行緒；寫入只有一條連線，本身就只有一個執行緒在執行，
+ * 不佔用讀取的許可，排隊等待寫入連線的執行緒不會擋住可以使用閒置讀取連線的查詢。
+ */
+@Configuration
+public class SqliteDataSourceConfig {
+
+  @Value("${spring.datasource.url}")
+  private String url;
+
+  @Value("${sqlite.pragma.synchronous:NORMAL}")
+  private String synchronous;
+
+  // 取得鎖的等待時間（毫秒）
+  @Value("${sqlite.pragma.busy-timeout:5000}")
+  private int busyTimeout;
+
+  // 頁面快取大小，負數表示以KiB為單位
+  @Value("${sqlite.pragma.cache-size:-16000}")
+  private int cacheSize;
+
+  // 記憶體映射I/O的大小（位元組）
+  @Value("${sqlite.pragma.mmap-size:268435456}")
+  private long mmapSize;
+
+  @Value("${sqlite.pragma.temp-store:MEMORY}")
+  private String tempStore;
+
+  @Value("${sqlite.pool.read.maximum-size:8}")
+  private int readPoolSize;
+
+  // 等待寫入連線的最長時間（毫秒）
+  @Value("${sqlite.pool.write.connection-timeout:30000}")
+  private long writeConnectionTimeout;
+
+  // 啟用虛擬執行緒時才限制讀取的並行數
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreadsEnabled;
+
+  // 同時執行讀取的執行緒上限，0 表示取讀取池大小與CPU核心數的較小者
+  @Value("${sqlite.concurrency.max-active:0}")
+  private int maxActive;
+
+  // 等待並行許可的最長時間（毫秒）
+  @Value("${sqlite.concurrency.acquire-timeout:30000}")
+  private long acquireTimeout = 30000;
+
+  /**
+   * 寫入連線池，只有一條連線
+   */
+  @Bean(destroyMethod = "close")
+  public HikariDataSource sqliteWriteDataSource() {
+    SQLiteConfig sqliteConfig = baseConfig();
+    sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+    // 寫入事務一開始就取得寫鎖，避免讀鎖升級為寫鎖時的死鎖
+    sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+    HikariConfig hikariConfig = new HikariConfig();
+    hikariConfig.setPoolName("sqlite-write");
+    hikariConfig.setJdbcUrl(url);
+    hikariConfig.setDataSourceProperties(sqliteConfig.toProperties());
+    hikariConfig.setMaximumPoolSize(1);
+    hikariConfig.setMinimumIdle(1);
+    hikariConfig.setConnectionTimeout(writeConnectionTimeout);
+    return new HikariDataSource(hikariConfig);
+  }
+
+  /**
+   * 讀取連線池，連線以唯讀模式開啟
+   * 依賴寫入池先建立資料庫檔案並切換為WAL模式（WAL設定會持久保存在資料庫檔案中）
+   */
+  @Bean(destroyMethod = "close")
+  @DependsOn("sqliteWriteDataSource")
+  public HikariDataSource sqliteReadDataSource() {
+    SQLiteConfig sqliteConfig = baseConfig();
+    sqliteConfig.setReadOnly(true);
+
+    HikariConfig hikariConfig = new HikariConfig();
+    hikariConfig.setPoolName("sqlite-read");
+    hikariConfig.setJdbcUrl(url);
+    hikariConfig.setDataSourceProperties(sqliteConfig.toProperties());
+    hikariConfig.setMaximumPoolSize(readPoolSize);
+    // 與連線的唯讀旗標保持一致，SQLite 不允許在連線建立後更改唯讀旗標
+    hikariConfig.setReadOnly(true);
+    return new HikariDataSource(hikariConfig);
+  }
+
+  /**
+   * 應用程式使用的資料來源
+   * 延遲到第一條語句執行時才取得實際連線，此時已知道事務是否唯讀，據此選擇讀取池或寫入池
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("sqliteWriteDataSource") DataSource writeDataSource,
+      @Qualifier("sqliteReadDataSource") DataSource readDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+    if (virtualThreadsEnabled) {
+      dataSource.setReadOnlyDataSource(new ConcurrencyLimitingDataSource(readDataSource,
+          new Semaphore(resolveMaxActive(), true), acquireTimeout));
+    } else {
+      dataSource.setReadOnlyDataSource(readDataSource);
+    }
+    return dataSource;
+  }
+
+  /**
+   * 讀取並行上限：超過讀取池大小只會在池內排隊，超過CPU核心數時虛擬執行緒可能釘住所有載體執行緒；
+   * 寫入連線另外佔用一個載體執行緒，因此核心數多於一個時保留一個給寫入
+   */
+  int resolveMaxActive() {
+    if (maxActive > 0) {
+      return maxActive;
+    }
+    int processors = Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(readPoolSize, processors > 1 ? processors - 1 : 1));
+  }
+
+  /**
+   * 每條連線建立時都會套用的 PRAGMA 設定
+   */
+  private SQLiteConfig baseConfig() {
+    SQLiteConfig sqliteConfig = new SQLiteConfig();
+    sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(synchronous));
+    sqliteConfig.setBusyTimeout(busyTimeout);
+    sqliteConfig.setCacheSize(cacheSize);
+    sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+    sqliteConfig.setTempStore(SQLiteConfig.TempStore.valueOf(tempStore));
+    return sqliteConfig;
+  }
+}
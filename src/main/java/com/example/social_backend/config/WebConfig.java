@@ -0,0 +1,23 @@
+package com.example.social_backend.config;
+
+import com.example.social_backend.security.CurrentUserIdArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Spring MVC 配置類
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  /**
+   * 註冊 @CurrentUserId 參數解析器
+   */
+  @Override
+  public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+    resolvers.add(new CurrentUserIdArgumentResolver());
+  }
+}
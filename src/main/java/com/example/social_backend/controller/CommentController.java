@@ -1,12 +1,19 @@
 package com.example.social_backend.controller;
 
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
 import com.example.social_backend.entity.Comment;
+import com.example.social_backend.security.CurrentUserId;
 import com.example.social_backend.service.CommentService;
-import com.example.social_backend.util.JwtUtil;
+import com.example.social_backend.service.ContentVersionTracker;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -17,39 +24,30 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class CommentController {
 
+  private static final Logger logger = LoggerFactory.getLogger(CommentController.class);
+
   private final CommentService commentService;
-  private final JwtUtil jwtUtil;
+  private final ContentVersionTracker versionTracker;
 
   @Autowired
-  public CommentController(CommentService commentService, JwtUtil jwtUtil) {
+  public CommentController(CommentService commentService, ContentVersionTracker versionTracker) {
     this.commentService = commentService;
-    this.jwtUtil = jwtUtil;
+    this.versionTracker = versionTracker;
   }
 
   /**
    * 創建新留言
    *
-   * @param token   JWT 令牌
+   * @param userId  當前登入用戶ID
    * @param request 請求體
    * @return 已創建的留言
    */
   @PostMapping
   public ResponseEntity<?> createComment(
-      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId Long userId,
       @RequestBody Map<String, Object> request) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
       if (!request.containsKey("postId") || !request.containsKey("content")) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("請求必須包含postId和content");
       }
@@ -67,55 +65,78 @@ public class CommentController {
     } catch (IllegalArgumentException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     } catch (Exception e) {
-      System.err.println("創建留言時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("創建留言時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("創建留言時發生內部錯誤，請查看日誌");
     }
   }
 
   /**
    * 獲取指定發文的所有留言
+   * 支援條件式請求，留言未變更時返回 304 且不查詢資料庫
    *
    * @param postId 發文ID
    * @return 留言列表
    */
   @GetMapping("/post/{postId}")
-  public ResponseEntity<?> getCommentsByPostId(@PathVariable Long postId) {
+  public ResponseEntity<?> getCommentsByPostId(@PathVariable Long postId, WebRequest webRequest,
+      HttpServletResponse response) {
+    if (ConditionalGet.notModified(webRequest, response, versionTracker.commentListVersion(postId))) {
+      return null;
+    }
     try {
-      List<Comment> comments = commentService.getCommentsByPostId(postId);
+      List<CommentView> comments = commentService.getCommentsByPostId(postId);
       return ResponseEntity.ok(comments);
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("伺服器內部錯誤: " + e.getMessage());
     }
   }
 
+  /**
+   * 以游標分頁方式獲取指定發文的留言串
+   * 支援條件式請求，留言未變更時返回 304 且不查詢資料庫
+   *
+   * @param postId 發文ID
+   * @param cursor 上一頁返回的游標（第一頁不需提供）
+   * @param limit  每頁筆數
+   * @param order  排序方向：oldest（由舊到新，預設）或 newest（由新到舊）
+   * @return 留言分頁
+   */
+  @GetMapping("/post/{postId}/page")
+  public ResponseEntity<?> getCommentPage(
+      @PathVariable Long postId,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "20") int limit,
+      @RequestParam(value = "order", defaultValue = "oldest") String order,
+      WebRequest webRequest, HttpServletResponse response) {
+    if (!"oldest".equals(order) && !"newest".equals(order)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("排序方向只能是 oldest 或 newest");
+    }
+    if (ConditionalGet.notModified(webRequest, response, versionTracker.commentListVersion(postId))) {
+      return null;
+    }
+    try {
+      CursorPage<CommentView> page = commentService.getCommentPage(postId, cursor, limit, "newest".equals(order));
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+
   /**
    * 獲取當前用戶的所有留言
    *
-   * @param token JWT 令牌
+   * @param userId 當前登入用戶ID
    * @return 留言列表
    */
   @GetMapping("/user")
   public ResponseEntity<?> getUserComments(
-      @RequestHeader(value = "Authorization", required = false) String token) {
+      @CurrentUserId Long userId) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
-      List<Comment> comments = commentService.getCommentsByUserId(userId);
+      List<CommentView> comments = commentService.getCommentsByUserId(userId);
       return ResponseEntity.ok(comments);
     } catch (Exception e) {
-      System.err.println("獲取用戶留言時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("獲取用戶留言時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("獲取用戶留言時發生內部錯誤，請查看日誌");
     }
   }
@@ -0,0 +1,31 @@
+package com.example.social_backend.controller;
+
+import com.example.social_backend.service.ContentVersionTracker.ContentVersion;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * 條件式 GET 的輔助方法
+ */
+final class ConditionalGet {
+
+  private ConditionalGet() {
+  }
+
+  /**
+   * 設定 ETag / Last-Modified 並檢查客戶端快取的內容是否仍然有效
+   * 響應改為 Cache-Control: no-cache（覆蓋 Spring Security 預設的 no-store），
+   * 讓瀏覽器保存內容並在下次請求時帶上 If-None-Match / If-Modified-Since。
+   *
+   * @param request  目前的請求
+   * @param response 目前的響應
+   * @param version  資源目前的版本
+   * @return 內容未變更時返回 true，此時響應已設為 304，控制器應直接返回 null
+   */
+  static boolean notModified(WebRequest request, HttpServletResponse response, ContentVersion version) {
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+    return request.checkNotModified(version.etag(), version.lastModified());
+  }
+}
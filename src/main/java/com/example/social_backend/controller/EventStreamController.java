@@ -0,0 +1,43 @@
+package com.example.social_backend.controller;
+
+import com.example.social_backend.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+
+  private final EventStreamService eventStreamService;
+
+  @Autowired
+  public EventStreamController(EventStreamService eventStreamService) {
+    this.eventStreamService = eventStreamService;
+  }
+
+  /**
+   * 訂閱發文與留言的即時變更事件（Server-Sent Events）
+   * 事件 "post" 的資料為 {postId, type}，事件 "comment" 的資料為 {postId, commentId}；
+   * 連線中斷後客戶端應重新連線，並以條件式 GET 取得錯過的內容。
+   *
+   * @return 事件串流，訂閱人數已滿時返回 503
+   */
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<?> subscribe() {
+    try {
+      return ResponseEntity.ok()
+          .header("X-Accel-Buffering", "no")
+          .body(eventStreamService.subscribe());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header("Retry-After", "5")
+          .contentType(MediaType.TEXT_PLAIN)
+          .body(e.getMessage());
+    }
+  }
+}
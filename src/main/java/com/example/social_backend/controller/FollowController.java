@@ -0,0 +1,54 @@
+package com.example.social_backend.controller;
+
+import com.example.social_backend.security.CurrentUserId;
+import com.example.social_backend.service.FollowService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin(origins = "*")
+public class FollowController {
+
+  private final FollowService followService;
+
+  @Autowired
+  public FollowController(FollowService followService) {
+    this.followService = followService;
+  }
+
+  /**
+   * 追蹤用戶（重複追蹤不會出錯）
+   *
+   * @param userId     當前登入用戶ID
+   * @param followeeId 被追蹤者ID
+   * @return 追蹤狀態
+   */
+  @PostMapping("/{followeeId}/follow")
+  public ResponseEntity<?> follow(@CurrentUserId Long userId, @PathVariable Long followeeId) {
+    try {
+      boolean created = followService.follow(userId, followeeId);
+      return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK)
+          .body(Map.of("followeeId", followeeId, "following", true));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+
+  /**
+   * 取消追蹤用戶
+   *
+   * @param userId     當前登入用戶ID
+   * @param followeeId 被追蹤者ID
+   * @return 無內容
+   */
+  @DeleteMapping("/{followeeId}/follow")
+  public ResponseEntity<?> unfollow(@CurrentUserId Long userId, @PathVariable Long followeeId) {
+    followService.unfollow(userId, followeeId);
+    return ResponseEntity.noContent().build();
+  }
+}
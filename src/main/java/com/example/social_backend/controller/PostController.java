@@ -1,13 +1,26 @@
 package com.example.social_backend.controller;
 
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.dto.TrendingPost;
 import com.example.social_backend.entity.Post;
+import com.example.social_backend.security.CurrentUserId;
+import com.example.social_backend.service.ContentVersionTracker;
+import com.example.social_backend.service.PostExportService;
 import com.example.social_backend.service.PostService;
-import com.example.social_backend.util.JwtUtil;
+import com.example.social_backend.service.TrendingService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,39 +30,35 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class PostController {
 
+  private static final Logger logger = LoggerFactory.getLogger(PostController.class);
+
   private final PostService postService;
-  private final JwtUtil jwtUtil;
+  private final PostExportService postExportService;
+  private final ContentVersionTracker versionTracker;
+  private final TrendingService trendingService;
 
   @Autowired
-  public PostController(PostService postService, JwtUtil jwtUtil) {
+  public PostController(PostService postService, PostExportService postExportService,
+      ContentVersionTracker versionTracker, TrendingService trendingService) {
     this.postService = postService;
-    this.jwtUtil = jwtUtil;
+    this.postExportService = postExportService;
+    this.versionTracker = versionTracker;
+    this.trendingService = trendingService;
   }
 
   /**
    * 創建新發文
    *
-   * @param token   JWT 令牌
+   * @param userId  當前登入用戶ID
    * @param request 請求體
    * @return 已創建的發文
    */
   @PostMapping
   public ResponseEntity<?> createPost(
-      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId Long userId,
       @RequestBody Map<String, String> request) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
       String content = request.get("content");
       String image = request.get("image");
       if (content == null || content.trim().isEmpty()) {
@@ -60,22 +69,86 @@ public class PostController {
     } catch (IllegalArgumentException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     } catch (Exception e) {
-      System.err.println("創建發文時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("創建發文時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("創建發文時發生內部錯誤，請查看日誌");
     }
   }
 
   /**
    * 獲取所有發文
+   * 支援條件式請求，發文未變更時返回 304 且不查詢資料庫
    *
    * @return 發文列表
    */
   @GetMapping
-  public ResponseEntity<List<Post>> getAllPosts() {
+  public ResponseEntity<List<PostView>> getAllPosts(WebRequest webRequest, HttpServletResponse response) {
+    if (ConditionalGet.notModified(webRequest, response, versionTracker.postListVersion())) {
+      return null;
+    }
     return ResponseEntity.ok(postService.getAllPosts());
   }
 
+  /**
+   * 以 NDJSON 格式串流匯出所有發文（按創建時間降序排序）
+   * 分批查詢後寫出，伺服器記憶體用量與發文數量無關，客戶端可在下載過程中逐行處理
+   *
+   * @return 串流響應，同時進行的匯出已達上限時返回 503
+   */
+  @GetMapping(value = "/export", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> exportPosts() {
+    StreamingResponseBody body;
+    try {
+      body = postExportService.openExport();
+    } catch (IllegalStateException e) {
+      // 返回類型須為 StreamingResponseBody 才會以非同步串流處理，錯誤訊息同樣以串流寫出
+      byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header("Retry-After", "30")
+          .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+          .body(outputStream -> outputStream.write(message));
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .body(body);
+  }
+
+  /**
+   * 以游標分頁方式獲取動態牆
+   *
+   * @param cursor          上一頁返回的游標（第一頁不需提供）
+   * @param limit           每頁筆數
+   * @param includeComments 是否附上每篇發文的留言數量與留言預覽
+   * @param previewSize     每篇發文預覽的留言數
+   * @return 發文分頁
+   */
+  @GetMapping("/feed")
+  public ResponseEntity<?> getFeed(
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "20") int limit,
+      @RequestParam(value = "includeComments", defaultValue = "false") boolean includeComments,
+      @RequestParam(value = "previewSize", defaultValue = "3") int previewSize) {
+    try {
+      if (includeComments) {
+        return ResponseEntity.ok(postService.getFeedWithComments(cursor, limit, previewSize));
+      }
+      CursorPage<Post> page = postService.getFeed(cursor, limit);
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+
+  /**
+   * 獲取熱門發文（依瀏覽及留言計算、隨時間衰減的熱度排序），直接由記憶體中的排行返回
+   *
+   * @param limit 筆數
+   * @return 熱門發文列表
+   */
+  @GetMapping("/trending")
+  public ResponseEntity<List<TrendingPost>> getTrending(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+    return ResponseEntity.ok(trendingService.getTrending(limit));
+  }
+
   /**
    * 獲取特定用戶的發文
    *
@@ -83,20 +156,25 @@ public class PostController {
    * @return 發文列表
    */
   @GetMapping("/user/{userId}")
-  public ResponseEntity<List<Post>> getUserPosts(@PathVariable Long userId) {
+  public ResponseEntity<List<PostView>> getUserPosts(@PathVariable Long userId) {
     return ResponseEntity.ok(postService.getPostsByUserId(userId));
   }
 
   /**
    * 獲取單一發文
+   * 支援條件式請求，發文未變更時返回 304 且不查詢資料庫
    *
    * @param postId 發文ID
    * @return 發文
    */
   @GetMapping("/{postId}")
-  public ResponseEntity<?> getPost(@PathVariable Long postId) {
+  public ResponseEntity<?> getPost(@PathVariable Long postId, WebRequest webRequest, HttpServletResponse response) {
+    if (ConditionalGet.notModified(webRequest, response, versionTracker.postVersion(postId))) {
+      return null;
+    }
     try {
       Post post = postService.getPostById(postId);
+      trendingService.recordView(post);
       return ResponseEntity.ok(post);
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -106,29 +184,18 @@ public class PostController {
   /**
    * 更新發文
    *
-   * @param token   JWT 令牌
+   * @param userId  當前登入用戶ID
    * @param postId  發文ID
    * @param request 請求體
    * @return 更新後的發文
    */
   @PutMapping("/{postId}")
   public ResponseEntity<?> updatePost(
-      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId Long userId,
       @PathVariable Long postId,
       @RequestBody Map<String, String> request) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
       String content = request.get("content");
       String image = request.get("image");
       if (content == null || content.trim().isEmpty()) {
@@ -144,8 +211,7 @@ public class PostController {
       }
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     } catch (Exception e) {
-      System.err.println("更新發文時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("更新發文時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("更新發文時發生內部錯誤，請查看日誌");
     }
   }
@@ -153,27 +219,16 @@ public class PostController {
   /**
    * 刪除發文
    *
-   * @param token  JWT 令牌
+   * @param userId 當前登入用戶ID
    * @param postId 發文ID
    * @return 刪除狀態
    */
   @DeleteMapping("/{postId}")
   public ResponseEntity<?> deletePost(
-      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId Long userId,
       @PathVariable Long postId) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
       postService.deletePost(userId, postId);
       Map<String, String> response = new HashMap<>();
       response.put("message", "發文已成功刪除");
@@ -185,8 +240,7 @@ public class PostController {
       }
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     } catch (Exception e) {
-      System.err.println("刪除發文時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("刪除發文時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("刪除發文時發生內部錯誤，請查看日誌");
     }
   }
@@ -194,27 +248,16 @@ public class PostController {
   /**
    * 創建發文和留言（使用存儲過程事務）
    *
-   * @param token   JWT 令牌
+   * @param userId  當前登入用戶ID
    * @param request 請求體
    * @return 已創建的發文和留言ID
    */
   @PostMapping("/with-comment")
   public ResponseEntity<?> createPostAndComment(
-      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId Long userId,
       @RequestBody Map<String, String> request) {
 
     try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-      String actualToken = token.substring(7);
-      Long userId;
-      try {
-        userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-
       String postContent = request.get("postContent");
       String postImage = request.get("postImage");
       String commentContent = request.get("commentContent");
@@ -231,8 +274,7 @@ public class PostController {
     } catch (IllegalArgumentException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     } catch (Exception e) {
-      System.err.println("創建發文和留言時發生內部錯誤: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("創建發文和留言時發生內部錯誤", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("創建發文和留言時發生內部錯誤，請查看日誌");
     }
   }
@@ -0,0 +1,48 @@
+package com.example.social_backend.controller;
+
+import com.example.social_backend.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+  private final SearchService searchService;
+
+  @Autowired
+  public SearchController(SearchService searchService) {
+    this.searchService = searchService;
+  }
+
+  /**
+   * 全文檢索發文或留言，結果按相關度排序
+   *
+   * @param query  搜尋關鍵字，以空白分隔的詞都必須出現，以 * 結尾的詞為前綴查詢
+   * @param type   搜尋對象：posts（預設）或 comments
+   * @param cursor 上一頁返回的游標（第一頁不需提供）
+   * @param limit  每頁筆數
+   * @return 搜尋結果分頁
+   */
+  @GetMapping
+  public ResponseEntity<?> search(
+      @RequestParam("q") String query,
+      @RequestParam(value = "type", defaultValue = "posts") String type,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    try {
+      if ("posts".equals(type)) {
+        return ResponseEntity.ok(searchService.searchPosts(query, cursor, limit));
+      }
+      if ("comments".equals(type)) {
+        return ResponseEntity.ok(searchService.searchComments(query, cursor, limit));
+      }
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("搜尋對象只能是 posts 或 comments");
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.social_backend.controller;
+
+import com.example.social_backend.security.CurrentUserId;
+import com.example.social_backend.service.TimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/timeline")
+@CrossOrigin(origins = "*")
+public class TimelineController {
+
+  private final TimelineService timelineService;
+
+  @Autowired
+  public TimelineController(TimelineService timelineService) {
+    this.timelineService = timelineService;
+  }
+
+  /**
+   * 以游標分頁方式獲取首頁時間軸（自己及追蹤對象的發文，最新的在前）
+   *
+   * @param userId 當前登入用戶ID
+   * @param cursor 上一頁返回的游標（第一頁不需提供）
+   * @param limit  每頁筆數
+   * @return 發文分頁
+   */
+  @GetMapping
+  public ResponseEntity<?> getHomeTimeline(
+      @CurrentUserId Long userId,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    try {
+      return ResponseEntity.ok(timelineService.getHomeTimeline(userId, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+}
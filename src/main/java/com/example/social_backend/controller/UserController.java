@@ -4,9 +4,11 @@ import com.example.social_backend.dto.ApiResponse;
 import com.example.social_backend.dto.LoginDto;
 import com.example.social_backend.dto.UserRegistrationDto;
 import com.example.social_backend.entity.User;
+import com.example.social_backend.security.CurrentUserId;
+import com.example.social_backend.service.PasswordHashingRejectedException;
 import com.example.social_backend.service.UserService;
-import com.example.social_backend.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -25,12 +27,10 @@ import java.util.Map;
 public class UserController {
 
   private final UserService userService;
-  private final JwtUtil jwtUtil;
 
   @Autowired
-  public UserController(UserService userService, JwtUtil jwtUtil) {
+  public UserController(UserService userService) {
     this.userService = userService;
-    this.jwtUtil = jwtUtil;
   }
 
   /**
@@ -66,6 +66,8 @@ public class UserController {
       // 返回客戶端錯誤響應
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
           .body(ApiResponse.error(e.getMessage()));
+    } catch (PasswordHashingRejectedException e) {
+      return tooManyRequests(e);
     } catch (Exception e) {
       // 返回伺服器錯誤響應
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -98,6 +100,8 @@ public class UserController {
       // 返回認證錯誤響應
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(ApiResponse.error(e.getMessage()));
+    } catch (PasswordHashingRejectedException e) {
+      return tooManyRequests(e);
     } catch (Exception e) {
       // 返回伺服器錯誤響應
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -108,28 +112,33 @@ public class UserController {
   /**
    * 驗證JWT令牌是否有效
    *
-   * @param token JWT令牌
+   * @param token  JWT令牌
+   * @param userId 過濾器驗證令牌後得到的用戶ID，令牌無效時為null
    * @return 驗證結果
    */
   @GetMapping("/validate-token")
-  public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String token) {
-    try {
-      if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
-      }
-
-      String actualToken = token.substring(7);
-      try {
-        Long userId = jwtUtil.validateTokenAndGetUserId(actualToken);
-        Map<String, Object> response = new HashMap<>();
-        response.put("valid", true);
-        response.put("userId", userId);
-        return ResponseEntity.ok(response);
-      } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：" + e.getMessage());
-      }
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("伺服器內部錯誤: " + e.getMessage());
+  public ResponseEntity<?> validateToken(
+      @RequestHeader(value = "Authorization", required = false) String token,
+      @CurrentUserId(required = false) Long userId) {
+    if (token == null || token.isEmpty() || !token.startsWith("Bearer ")) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("未提供有效的認證令牌");
     }
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("認證失敗：無效或已過期的令牌");
+    }
+
+    Map<String, Object> response = new HashMap<>();
+    response.put("valid", true);
+    response.put("userId", userId);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * 密碼雜湊執行緒池已滿時的響應，提示客戶端稍後重試
+   */
+  private ResponseEntity<ApiResponse<Map<String, Object>>> tooManyRequests(PasswordHashingRejectedException e) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(ApiResponse.error(e.getMessage()));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.example.social_backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 留言的唯讀視圖，列表查詢直接以建構子表達式產生，不建立受管實體
+ *
+ * @param commentId 留言ID
+ * @param userId    用戶ID
+ * @param postId    發文ID
+ * @param content   留言內容
+ * @param createdAt 創建時間
+ */
+public record CommentView(Long commentId, Long userId, Long postId, String content, LocalDateTime createdAt) {
+}
@@ -0,0 +1,46 @@
+package com.example.social_backend.dto;
+
+import java.util.List;
+
+/**
+ * 游標分頁響應的數據傳輸對象
+ *
+ * @param <T> 項目類型
+ */
+public class CursorPage<T> {
+  private List<T> items;
+  private String nextCursor;
+  private boolean hasMore;
+
+  // 建構子
+  public CursorPage(List<T> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+    this.hasMore = nextCursor != null;
+  }
+
+  // Getters and Setters
+  public List<T> getItems() {
+    return items;
+  }
+
+  public void setItems(List<T> items) {
+    this.items = items;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public boolean isHasMore() {
+    return hasMore;
+  }
+
+  public void setHasMore(boolean hasMore) {
+    this.hasMore = hasMore;
+  }
+}
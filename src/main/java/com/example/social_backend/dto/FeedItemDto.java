@@ -0,0 +1,97 @@
+package com.example.social_backend.dto;
+
+import com.example.social_backend.entity.Post;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 動態牆項目的數據傳輸對象，包含發文內容、留言數量、最後留言時間及前幾則留言預覽
+ */
+public class FeedItemDto {
+  private Long postId;
+  private Long userId;
+  private String content;
+  private String image;
+  private LocalDateTime createdAt;
+  private long commentCount;
+  private LocalDateTime lastCommentAt;
+  private List<CommentView> comments;
+
+  // 建構子
+  public FeedItemDto(Post post, long commentCount, List<CommentView> comments) {
+    this.postId = post.getPostId();
+    this.userId = post.getUserId();
+    this.content = post.getContent();
+    this.image = post.getImage();
+    this.createdAt = post.getCreatedAt();
+    this.commentCount = commentCount;
+    this.lastCommentAt = post.getLastCommentAt();
+    this.comments = comments;
+  }
+
+  // Getters and Setters
+  public Long getPostId() {
+    return postId;
+  }
+
+  public void setPostId(Long postId) {
+    this.postId = postId;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public void setContent(String content) {
+    this.content = content;
+  }
+
+  public String getImage() {
+    return image;
+  }
+
+  public void setImage(String image) {
+    this.image = image;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public long getCommentCount() {
+    return commentCount;
+  }
+
+  public void setCommentCount(long commentCount) {
+    this.commentCount = commentCount;
+  }
+
+  public LocalDateTime getLastCommentAt() {
+    return lastCommentAt;
+  }
+
+  public void setLastCommentAt(LocalDateTime lastCommentAt) {
+    this.lastCommentAt = lastCommentAt;
+  }
+
+  public List<CommentView> getComments() {
+    return comments;
+  }
+
+  public void setComments(List<CommentView> comments) {
+    this.comments = comments;
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.social_backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 發文的唯讀視圖，列表查詢直接以建構子表達式產生，不建立受管實體
+ *
+ * @param postId    發文ID
+ * @param userId    用戶ID
+ * @param content   發文內容
+ * @param image     圖片URL
+ * @param createdAt 創建時間
+ */
+public record PostView(Long postId, Long userId, String content, String image, LocalDateTime createdAt) {
+}
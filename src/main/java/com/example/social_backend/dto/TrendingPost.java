@@ -0,0 +1,17 @@
+package com.example.social_backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 熱門發文
+ *
+ * @param postId    發文ID
+ * @param userId    用戶ID
+ * @param content   發文內容
+ * @param image     圖片URL
+ * @param createdAt 創建時間
+ * @param score     目前的熱度分數（瀏覽與留言依時間衰減後的加權和）
+ */
+public record TrendingPost(Long postId, Long userId, String content, String image, LocalDateTime createdAt,
+    double score) {
+}
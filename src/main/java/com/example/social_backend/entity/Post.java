@@ -24,6 +24,13 @@ public class Post {
   @Column(name = "CreatedAt", nullable = false)
   private LocalDateTime createdAt;
 
+  // 留言數量與最後留言時間只由留言寫入的SQL維護，實體保存時不寫入，避免以過期的值覆蓋
+  @Column(name = "CommentCount", nullable = false, insertable = false, updatable = false)
+  private long commentCount;
+
+  @Column(name = "LastCommentAt", insertable = false, updatable = false)
+  private LocalDateTime lastCommentAt;
+
   // 無參數建構子
   public Post() {
     this.createdAt = LocalDateTime.now();
@@ -78,6 +85,22 @@ public class Post {
     this.createdAt = createdAt;
   }
 
+  public long getCommentCount() {
+    return commentCount;
+  }
+
+  public void setCommentCount(long commentCount) {
+    this.commentCount = commentCount;
+  }
+
+  public LocalDateTime getLastCommentAt() {
+    return lastCommentAt;
+  }
+
+  public void setLastCommentAt(LocalDateTime lastCommentAt) {
+    this.lastCommentAt = lastCommentAt;
+  }
+
   @Override
   public String toString() {
     return "Post{" +
@@ -86,6 +109,8 @@ public class Post {
         ", content='" + content + '\'' +
         ", image='" + image + '\'' +
         ", createdAt=" + createdAt +
+        ", commentCount=" + commentCount +
+        ", lastCommentAt=" + lastCommentAt +
         '}';
   }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.social_backend.event;
+
+/**
+ * 發文新增了留言
+ * 在寫入事務中發布，監聽器可在事務提交後處理
+ *
+ * @param postId    留言所屬的發文ID
+ * @param commentId 新留言的ID
+ */
+public record CommentChangedEvent(Long postId, Long commentId) {
+}
@@ -0,0 +1,20 @@
+package com.example.social_backend.event;
+
+/**
+ * 發文已新增、更新或刪除
+ * 在寫入事務中發布，監聽器可在事務提交後處理
+ *
+ * @param postId 發文ID
+ * @param type   變更類型
+ */
+public record PostChangedEvent(Long postId, Type type) {
+
+  /**
+   * 變更類型
+   */
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.social_backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 多筆插入的原子操作
+ * 所有插入在同一事務、同一連線上執行，每條語句以 INSERT ... RETURNING 直接取回產生的ID，
+ * 不需要額外查詢 last_insert_rowid()，後面的插入可以引用前面插入產生的ID。
+ */
+@Component
+public class AtomicInsertTemplate {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Autowired
+  public AtomicInsertTemplate(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * 依序執行所有插入，任一插入失敗時全部回滾
+   * 若呼叫者已在事務中則加入該事務。
+   *
+   * @param inserts 插入語句（須以 RETURNING 子句返回產生的ID）
+   * @return 每條插入產生的ID（與輸入順序相同）
+   */
+  public List<Long> insertAll(List<Insert> inserts) {
+    return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection ->
+        executeInserts(connection, inserts)));
+  }
+
+  private List<Long> executeInserts(Connection connection, List<Insert> inserts) throws SQLException {
+    List<Long> ids = new ArrayList<>(inserts.size());
+    for (Insert insert : inserts) {
+      try (PreparedStatement statement = connection.prepareStatement(insert.sql())) {
+        Object[] parameters = insert.parameters().apply(Collections.unmodifiableList(ids));
+        for (int i = 0; i < parameters.length; i++) {
+          StatementCreatorUtils.setParameterValue(statement, i + 1, SqlTypeValue.TYPE_UNKNOWN, parameters[i]);
+        }
+        try (ResultSet resultSet = statement.executeQuery()) {
+          if (!resultSet.next()) {
+            throw new SQLException("插入語句沒有返回產生的ID: " + insert.sql());
+          }
+          ids.add(resultSet.getLong(1));
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * 一條插入語句
+   *
+   * @param sql        插入SQL（以 RETURNING 子句返回產生的ID）
+   * @param parameters 根據前面插入已產生的ID計算本條語句的參數
+   */
+  public record Insert(String sql, Function<List<Long>, Object[]> parameters) {
+
+    /**
+     * 參數不依賴前面插入結果的插入語句
+     */
+    public static Insert of(String sql, Object... parameters) {
+      return new Insert(sql, previousIds -> parameters);
+    }
+  }
+}
@@ -1,13 +1,37 @@
 package com.example.social_backend.repository;
 
+import com.example.social_backend.dto.CommentView;
 import com.example.social_backend.entity.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+  String THREAD_OLDEST_FIRST_SQL = "SELECT * FROM comment WHERE postid = :postId "
+      + "ORDER BY created_at, commentid LIMIT :limit";
+
+  String THREAD_OLDEST_FIRST_AFTER_SQL = "SELECT * FROM comment WHERE postid = :postId "
+      + "AND (created_at, commentid) > (:createdAt, :commentId) ORDER BY created_at, commentid LIMIT :limit";
+
+  String THREAD_NEWEST_FIRST_SQL = "SELECT * FROM comment WHERE postid = :postId "
+      + "ORDER BY created_at DESC, commentid DESC LIMIT :limit";
+
+  String THREAD_NEWEST_FIRST_BEFORE_SQL = "SELECT * FROM comment WHERE postid = :postId "
+      + "AND (created_at, commentid) < (:createdAt, :commentId) ORDER BY created_at DESC, commentid DESC LIMIT :limit";
+
+  String COMMENT_PREVIEW_SQL = "SELECT commentid AS commentId, userid AS userId, postid AS postId, content AS content, "
+      + "created_at AS createdAt, rn AS rowNumber FROM ("
+      + "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.postid ORDER BY c.created_at, c.commentid) AS rn "
+      + "FROM comment c WHERE c.postid IN (:postIds)) "
+      + "WHERE rn <= :previewSize ORDER BY postid, rn";
+
   /**
    * 查詢指定發文的所有留言並按創建時間升序排序
    * 
@@ -23,4 +47,98 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
    * @return 留言列表
    */
   List<Comment> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+  /**
+   * 查詢指定發文所有留言的唯讀視圖並按創建時間升序排序
+   * 只選取需要的欄位並直接建構記錄，不建立受管實體及其髒檢查快照
+   *
+   * @param postId 發文ID
+   * @return 留言視圖列表
+   */
+  List<CommentView> findViewsByPostIdOrderByCreatedAtAsc(Long postId);
+
+  /**
+   * 查詢指定用戶所有留言的唯讀視圖並按創建時間降序排序
+   *
+   * @param userId 用戶ID
+   * @return 留言視圖列表
+   */
+  List<CommentView> findViewsByUserIdOrderByCreatedAtDesc(Long userId);
+
+  /**
+   * 查詢指定發文留言串的第一頁（由舊到新）
+   *
+   * @param postId 發文ID
+   * @param limit  最多返回筆數
+   * @return 留言列表
+   */
+  @Query(value = THREAD_OLDEST_FIRST_SQL, nativeQuery = true)
+  List<Comment> findThreadOldestFirst(@Param("postId") Long postId, @Param("limit") int limit);
+
+  /**
+   * 查詢指定鍵集位置之後的留言串頁面（由舊到新），使用 (postid, created_at, commentid) 複合索引定位，
+   * 因此再長的留言串任何一頁的成本都與第一頁相同
+   *
+   * @param postId    發文ID
+   * @param createdAt 上一頁最後一則留言的創建時間
+   * @param commentId 上一頁最後一則留言的ID
+   * @param limit     最多返回筆數
+   * @return 留言列表
+   */
+  @Query(value = THREAD_OLDEST_FIRST_AFTER_SQL, nativeQuery = true)
+  List<Comment> findThreadOldestFirstAfter(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+      @Param("commentId") Long commentId, @Param("limit") int limit);
+
+  /**
+   * 查詢指定發文留言串的第一頁（由新到舊）
+   *
+   * @param postId 發文ID
+   * @param limit  最多返回筆數
+   * @return 留言列表
+   */
+  @Query(value = THREAD_NEWEST_FIRST_SQL, nativeQuery = true)
+  List<Comment> findThreadNewestFirst(@Param("postId") Long postId, @Param("limit") int limit);
+
+  /**
+   * 查詢指定鍵集位置之前的留言串頁面（由新到舊）
+   *
+   * @param postId    發文ID
+   * @param createdAt 上一頁最後一則留言的創建時間
+   * @param commentId 上一頁最後一則留言的ID
+   * @param limit     最多返回筆數
+   * @return 留言列表
+   */
+  @Query(value = THREAD_NEWEST_FIRST_BEFORE_SQL, nativeQuery = true)
+  List<Comment> findThreadNewestFirstBefore(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+      @Param("commentId") Long commentId, @Param("limit") int limit);
+
+  /**
+   * 一次查詢多篇發文的前幾則留言
+   * 使用視窗函數在單一語句中完成每組取前N筆，取代逐篇發文查詢。
+   * 留言數量改由發文的計數欄位提供。
+   *
+   * @param postIds     發文ID集合
+   * @param previewSize 每篇發文預覽的留言數量
+   * @return 留言預覽列（按發文ID及留言順序排序）
+   */
+  @Query(value = COMMENT_PREVIEW_SQL, nativeQuery = true)
+  List<CommentPreviewRow> findPreviewRowsByPostIds(@Param("postIds") Collection<Long> postIds,
+      @Param("previewSize") int previewSize);
+
+  /**
+   * 留言預覽查詢的結果列
+   */
+  interface CommentPreviewRow {
+    Long getCommentId();
+
+    Long getUserId();
+
+    Long getPostId();
+
+    String getContent();
+
+    LocalDateTime getCreatedAt();
+
+    Long getRowNumber();
+  }
 }
\ No newline at end of file
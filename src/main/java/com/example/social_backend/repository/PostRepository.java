@@ -1,13 +1,24 @@
 package com.example.social_backend.repository;
 
+import com.example.social_backend.dto.PostView;
 import com.example.social_backend.entity.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+
+  String FEED_FIRST_PAGE_SQL = "SELECT * FROM post ORDER BY created_at DESC, postid DESC LIMIT :limit";
+
+  String FEED_PAGE_BEFORE_SQL = "SELECT * FROM post WHERE (created_at, postid) < (:createdAt, :postId) "
+      + "ORDER BY created_at DESC, postid DESC LIMIT :limit";
+
   /**
    * 查詢所有發文並按創建時間降序排序
    * 
@@ -22,4 +33,56 @@ public interface PostRepository extends JpaRepository<Post, Long> {
    * @return 發文列表
    */
   List<Post> findByUserIdOrderByCreatedAtDesc(Long userId);
-}
\ No newline at end of file
+
+  /**
+   * 查詢所有發文的唯讀視圖並按創建時間降序排序
+   * 只選取需要的欄位並直接建構記錄，不建立受管實體及其髒檢查快照
+   *
+   * @return 發文視圖列表
+   */
+  List<PostView> findViewsByOrderByCreatedAtDesc();
+
+  /**
+   * 查詢指定用戶所有發文的唯讀視圖並按創建時間降序排序
+   *
+   * @param userId 用戶ID
+   * @return 發文視圖列表
+   */
+  List<PostView> findViewsByUserIdOrderByCreatedAtDesc(Long userId);
+
+  /**
+   * 查詢動態牆第一頁（按創建時間和ID降序排序）
+   *
+   * @param limit 最多返回筆數
+   * @return 發文列表
+   */
+  @Query(value = FEED_FIRST_PAGE_SQL, nativeQuery = true)
+  List<Post> findFeedFirstPage(@Param("limit") int limit);
+
+  /**
+   * 查詢指定鍵集位置之後的動態牆頁面，使用 (created_at, postid) 複合索引定位，
+   * 因此任何一頁的成本都與第一頁相同
+   *
+   * @param createdAt 上一頁最後一筆發文的創建時間
+   * @param postId    上一頁最後一筆發文的ID
+   * @param limit     最多返回筆數
+   * @return 發文列表
+   */
+  @Query(value = FEED_PAGE_BEFORE_SQL, nativeQuery = true)
+  List<Post> findFeedPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("postId") Long postId,
+      @Param("limit") int limit);
+
+  /**
+   * 新增留言後遞增發文的留言數量並更新最後留言時間，須與留言插入在同一事務中執行
+   * 執行後清除持久化上下文，同一事務中之後讀取的發文實體不會沿用更新前的計數
+   *
+   * @param postId      發文ID
+   * @param commentedAt 留言創建時間
+   * @return 更新的列數，發文不存在時為0
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "UPDATE post SET comment_count = comment_count + 1, "
+      + "last_comment_at = MAX(COALESCE(last_comment_at, :commentedAt), :commentedAt) WHERE postid = :postId",
+      nativeQuery = true)
+  int incrementCommentCount(@Param("postId") Long postId, @Param("commentedAt") LocalDateTime commentedAt);
+}
@@ -0,0 +1,49 @@
+package com.example.social_backend.repository;
+
+import com.example.social_backend.util.SearchTextSegmenter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 全文檢索索引（post_fts、comment_fts）的寫入
+ * 索引與發文、留言在同一事務中更新，呼叫者須已在寫入事務中；
+ * 寫入前以 {@link SearchTextSegmenter} 切分中日文字；現有資料的索引由 Flyway Java 遷移建立。
+ */
+@Repository
+public class SearchIndexRepository {
+
+  private static final String INDEX_POST_SQL = "INSERT OR REPLACE INTO post_fts (rowid, content) VALUES (?, ?)";
+
+  private static final String INDEX_COMMENT_SQL = "INSERT OR REPLACE INTO comment_fts (rowid, content) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public SearchIndexRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * 新增或更新發文的索引
+   */
+  public void indexPost(Long postId, String content) {
+    jdbcTemplate.update(INDEX_POST_SQL, postId, SearchTextSegmenter.segment(content));
+  }
+
+  /**
+   * 移除發文及其所有留言的索引
+   */
+  public void removePost(Long postId) {
+    jdbcTemplate.update("DELETE FROM post_fts WHERE rowid = ?", postId);
+    jdbcTemplate.update("DELETE FROM comment_fts WHERE rowid IN (SELECT commentid FROM comment WHERE postid = ?)",
+        postId);
+  }
+
+  /**
+   * 新增或更新留言的索引
+   */
+  public void indexComment(Long commentId, String content) {
+    jdbcTemplate.update(INDEX_COMMENT_SQL, commentId, SearchTextSegmenter.segment(content));
+  }
+}
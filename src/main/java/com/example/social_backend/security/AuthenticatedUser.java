@@ -0,0 +1,12 @@
+package com.example.social_backend.security;
+
+import java.util.List;
+
+/**
+ * 已通過JWT驗證的用戶主體，直接由令牌聲明構建，不需要查詢數據庫
+ *
+ * @param userId 用戶ID
+ * @param roles  用戶角色
+ */
+public record AuthenticatedUser(Long userId, List<String> roles) {
+}
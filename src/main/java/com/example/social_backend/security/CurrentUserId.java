@@ -0,0 +1,22 @@
+package com.example.social_backend.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 將JWT認證過濾器已驗證的當前用戶ID注入控制器方法參數
+ * 令牌只在過濾器中驗證一次，控制器不需要再次解析Authorization頭
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUserId {
+
+  /**
+   * 是否必須已通過身份驗證，為false時未驗證的請求會注入null
+   */
+  boolean required() default true;
+}
@@ -0,0 +1,38 @@
+package com.example.social_backend.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 解析 {@link CurrentUserId} 參數，從安全上下文中取出過濾器建立的身份驗證主體
+ */
+public class CurrentUserIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.hasParameterAnnotation(CurrentUserId.class)
+        && Long.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+      return user.userId();
+    }
+
+    CurrentUserId annotation = parameter.getParameterAnnotation(CurrentUserId.class);
+    if (annotation != null && annotation.required()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "未提供有效的認證令牌");
+    }
+    return null;
+  }
+}
@@ -1,7 +1,5 @@
 package com.example.social_backend.security;
 
-import com.example.social_backend.entity.User;
-import com.example.social_backend.service.UserService;
 import com.example.social_backend.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,21 +14,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
 
 /**
  * JWT認證過濾器，用於解析和驗證JWT令牌
+ * 身份驗證主體直接由已驗證的令牌聲明構建，不會為每個請求查詢用戶資料表
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtUtil jwtUtil;
-  private final UserService userService;
 
   @Autowired
-  public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+  public JwtAuthenticationFilter(JwtUtil jwtUtil) {
     this.jwtUtil = jwtUtil;
-    this.userService = userService;
   }
 
   @Override
@@ -40,47 +37,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // 從HTTP請求頭中獲取Authorization
     final String authorizationHeader = request.getHeader("Authorization");
 
-    String jwt = null;
-    Long userId = null;
+    JwtUtil.VerifiedToken verifiedToken = null;
 
     // 檢查Authorization頭是否存在且以Bearer開頭
     if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-      // 提取JWT令牌
-      jwt = authorizationHeader.substring(7);
+      // 提取並驗證JWT令牌（簽名與有效期只驗證一次）
+      String jwt = authorizationHeader.substring(7);
       try {
-        // 從令牌中提取用戶ID
-        userId = jwtUtil.extractUserId(jwt);
+        verifiedToken = jwtUtil.verifyToken(jwt);
       } catch (Exception e) {
-        logger.error("無法從令牌中提取用戶ID", e);
+        logger.debug("JWT令牌無效", e);
       }
     } else {
       logger.debug("未找到Bearer令牌");
     }
 
-    // 檢查用戶ID是否存在且當前尚未進行身份驗證
-    if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      try {
-        // 驗證JWT令牌
-        if (jwtUtil.validateToken(jwt)) {
-          // 從數據庫中獲取用戶
-          User user = userService.findUserById(userId);
+    // 檢查令牌是否有效且當前尚未進行身份驗證
+    if (verifiedToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      // 直接由令牌聲明構建身份驗證主體
+      AuthenticatedUser principal = new AuthenticatedUser(verifiedToken.userId(), verifiedToken.roles());
+      List<SimpleGrantedAuthority> authorities = verifiedToken.roles().stream()
+          .map(SimpleGrantedAuthority::new)
+          .toList();
 
-          // 創建身份驗證對象
-          UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-              user, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+      // 創建身份驗證對象
+      UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+          principal, null, authorities);
 
-          authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+      authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-          // 設置安全上下文
-          SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+      // 設置安全上下文
+      SecurityContextHolder.getContext().setAuthentication(authenticationToken);
 
-          logger.debug("用戶已通過JWT令牌身份驗證: " + userId);
-        } else {
-          logger.debug("JWT令牌無效");
-        }
-      } catch (Exception e) {
-        logger.error("無法設置用戶身份驗證", e);
-      }
+      logger.debug("用戶已通過JWT令牌身份驗證: " + verifiedToken.userId());
     }
 
     // 繼續過濾器鏈
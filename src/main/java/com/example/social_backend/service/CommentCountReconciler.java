@@ -0,0 +1,134 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.event.PostChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 發文留言數量的定期修復
+ * 留言數量與最後留言時間在留言寫入時遞增維護，手動修改資料或留言被直接刪除時會產生偏差；
+ * 此工作定期以實際留言重新計算，只更新有偏差的發文。
+ * 依發文ID範圍分批修復，每批一個短事務，不會長時間佔用SQLite的寫鎖。
+ */
+@Component
+public class CommentCountReconciler {
+
+  private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+  private static final String ACTUAL_COUNT = "(SELECT COUNT(*) FROM comment c WHERE c.postid = post.postid)";
+
+  private static final String ACTUAL_LAST = "(SELECT MAX(c.created_at) FROM comment c WHERE c.postid = post.postid)";
+
+  static final String RECONCILE_SQL = "UPDATE post SET comment_count = " + ACTUAL_COUNT
+      + ", last_comment_at = " + ACTUAL_LAST
+      + " WHERE postid > ? AND postid <= ? AND (comment_count <> " + ACTUAL_COUNT
+      + " OR last_comment_at IS NOT " + ACTUAL_LAST + ") RETURNING postid";
+
+  @Value("${comment-count.reconcile.enabled:true}")
+  private boolean enabled = true;
+
+  // 修復間隔（毫秒）
+  @Value("${comment-count.reconcile.interval:3600000}")
+  private long interval = 3600000;
+
+  // 每批檢查的發文ID範圍
+  @Value("${comment-count.reconcile.batch-size:1000}")
+  private int batchSize = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CacheManager cacheManager;
+  private final ApplicationEventPublisher eventPublisher;
+
+  private ScheduledExecutorService scheduler;
+
+  @Autowired
+  public CommentCountReconciler(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+      CacheManager cacheManager, ApplicationEventPublisher eventPublisher) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.cacheManager = cacheManager;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "comment-count-reconciler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::reconcileQuietly, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * 以實際留言重新計算所有發文的留言數量與最後留言時間
+   * 修復的發文會清除快取並發佈變更事件，讓條件式 GET 與即時推送的客戶端取得新值
+   *
+   * @return 修復的發文數量
+   */
+  public int reconcile() {
+    Long maxPostId = jdbcTemplate.queryForObject("SELECT MAX(postid) FROM post", Long.class);
+    if (maxPostId == null) {
+      return 0;
+    }
+    int repaired = 0;
+    for (long from = 0; from < maxPostId; from += batchSize) {
+      repaired += reconcileRange(from, from + batchSize);
+    }
+    if (repaired > 0) {
+      logger.warn("已修復 {} 篇發文的留言數量", repaired);
+    }
+    return repaired;
+  }
+
+  private int reconcileRange(long fromExclusive, long toInclusive) {
+    Cache postsCache = cacheManager.getCache(CacheConfig.POSTS_CACHE);
+    return transactionTemplate.execute(status -> {
+      List<Long> postIds = jdbcTemplate.queryForList(RECONCILE_SQL, Long.class, fromExclusive, toInclusive);
+      for (Long postId : postIds) {
+        if (postsCache != null) {
+          postsCache.evict(postId);
+        }
+        eventPublisher.publishEvent(new PostChangedEvent(postId, PostChangedEvent.Type.UPDATED));
+      }
+      return postIds.size();
+    });
+  }
+
+  private void reconcileQuietly() {
+    try {
+      reconcile();
+    } catch (RuntimeException e) {
+      // 例外會取消後續排程，記錄後等待下一次執行
+      logger.warn("修復留言數量失敗: {}", e.getMessage());
+    }
+  }
+}
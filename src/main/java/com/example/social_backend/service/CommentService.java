@@ -1,11 +1,20 @@
 package com.example.social_backend.service;
 
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
 import com.example.social_backend.entity.Comment;
 import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.CommentChangedEvent;
 import com.example.social_backend.repository.CommentRepository;
 import com.example.social_backend.repository.PostRepository;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.CursorCodec;
 import com.example.social_backend.util.SanitizerUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,27 +23,42 @@ import java.util.List;
 @Service
 public class CommentService {
 
+  // 留言串每頁最大筆數
+  public static final int MAX_COMMENT_PAGE_SIZE = 100;
+
   private final CommentRepository commentRepository;
   private final PostRepository postRepository;
   private final SanitizerUtil sanitizerUtil;
+  private final WriteBatcher writeBatcher;
+  private final SearchIndexRepository searchIndexRepository;
+  private final CacheManager cacheManager;
+  private final TrendingService trendingService;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   public CommentService(CommentRepository commentRepository, PostRepository postRepository,
-      SanitizerUtil sanitizerUtil) {
+      SanitizerUtil sanitizerUtil, WriteBatcher writeBatcher, SearchIndexRepository searchIndexRepository,
+      CacheManager cacheManager, TrendingService trendingService, ApplicationEventPublisher eventPublisher) {
     this.commentRepository = commentRepository;
     this.postRepository = postRepository;
     this.sanitizerUtil = sanitizerUtil;
+    this.writeBatcher = writeBatcher;
+    this.searchIndexRepository = searchIndexRepository;
+    this.cacheManager = cacheManager;
+    this.trendingService = trendingService;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
    * 創建新留言
+   * 寫入經由批次處理器與同時到達的其他寫入合併提交，發文的留言數量在同一事務中遞增，提交後計入發文的熱度。
+   * 快取的發文（含留言數量）在批次事務提交時清除，早於版本遞增，讀到新版本的請求不會再取得舊的快取內容。
    *
    * @param userId  用戶ID
    * @param postId  發文ID
    * @param content 留言內容
    * @return 已創建的留言
    */
-  @Transactional
   public Comment createComment(Long userId, Long postId, String content) {
     // 驗證輸入
     if (userId == null) {
@@ -61,18 +85,76 @@ public class CommentService {
     String sanitizedContent = sanitizerUtil.sanitize(content);
 
     // 創建並保存留言
-    Comment comment = new Comment(userId, postId, sanitizedContent);
-    return commentRepository.save(comment);
+    Cache postsCache = cacheManager.getCache(CacheConfig.POSTS_CACHE);
+    Comment saved = writeBatcher.submit(() -> {
+      Comment comment = commentRepository.save(new Comment(userId, postId, sanitizedContent));
+      // 發文在檢查後才被刪除時，連同留言一起回滾
+      if (postRepository.incrementCommentCount(postId, comment.getCreatedAt()) == 0) {
+        throw new IllegalArgumentException("找不到ID為 " + postId + " 的發文");
+      }
+      searchIndexRepository.indexComment(comment.getCommentId(), sanitizedContent);
+      // 交易感知快取在 afterCommit 清除，事件監聽器（版本遞增）在其後的 afterCompletion 執行
+      if (postsCache != null) {
+        postsCache.evict(postId);
+      }
+      eventPublisher.publishEvent(new CommentChangedEvent(postId, comment.getCommentId()));
+      return comment;
+    });
+    trendingService.recordComment(post);
+    return saved;
+  }
+
+  /**
+   * 以鍵集分頁方式獲取指定發文的留言串
+   * 按 (創建時間, 留言ID) 排序，游標記錄上一頁最後一則留言的位置，任何一頁的成本都與第一頁相同
+   *
+   * @param postId      發文ID
+   * @param cursor      上一頁返回的游標，第一頁傳入null
+   * @param limit       每頁筆數，超出範圍時會被限制在 1 到 {@value #MAX_COMMENT_PAGE_SIZE} 之間
+   * @param newestFirst 是否由新到舊排序（預設由舊到新）
+   * @return 留言分頁
+   * @throws IllegalArgumentException 如果游標格式不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<CommentView> getCommentPage(Long postId, String cursor, int limit, boolean newestFirst) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_COMMENT_PAGE_SIZE));
+
+    // 多取一筆以判斷是否還有下一頁
+    List<Comment> comments;
+    if (cursor == null || cursor.isEmpty()) {
+      comments = newestFirst
+          ? commentRepository.findThreadNewestFirst(postId, pageSize + 1)
+          : commentRepository.findThreadOldestFirst(postId, pageSize + 1);
+    } else {
+      CursorCodec.Cursor position = CursorCodec.decode(cursor);
+      comments = newestFirst
+          ? commentRepository.findThreadNewestFirstBefore(postId, position.createdAt(), position.id(), pageSize + 1)
+          : commentRepository.findThreadOldestFirstAfter(postId, position.createdAt(), position.id(), pageSize + 1);
+    }
+
+    List<CommentView> page = comments.stream()
+        .limit(pageSize)
+        .map(comment -> new CommentView(comment.getCommentId(), comment.getUserId(), comment.getPostId(),
+            comment.getContent(), comment.getCreatedAt()))
+        .toList();
+    if (comments.size() <= pageSize) {
+      return new CursorPage<>(page, null);
+    }
+    CommentView last = page.get(pageSize - 1);
+    return new CursorPage<>(page, CursorCodec.encode(last.createdAt(), last.commentId()));
   }
 
   /**
    * 獲取指定發文的所有留言
+   * 留言很多的發文請改用 {@link #getCommentPage}
+   * 唯讀事務：連線取自讀取池，Hibernate 不進行 flush
    *
    * @param postId 發文ID
    * @return 留言列表
    */
-  public List<Comment> getCommentsByPostId(Long postId) {
-    return commentRepository.findByPostIdOrderByCreatedAtAsc(postId);
+  @Transactional(readOnly = true)
+  public List<CommentView> getCommentsByPostId(Long postId) {
+    return commentRepository.findViewsByPostIdOrderByCreatedAtAsc(postId);
   }
 
   /**
@@ -81,7 +163,8 @@ public class CommentService {
    * @param userId 用戶ID
    * @return 留言列表
    */
-  public List<Comment> getCommentsByUserId(Long userId) {
-    return commentRepository.findByUserIdOrderByCreatedAtDesc(userId);
+  @Transactional(readOnly = true)
+  public List<CommentView> getCommentsByUserId(Long userId) {
+    return commentRepository.findViewsByUserIdOrderByCreatedAtDesc(userId);
   }
 }
\ No newline at end of file
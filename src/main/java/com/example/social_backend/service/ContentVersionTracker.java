@@ -0,0 +1,113 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.event.CommentChangedEvent;
+import com.example.social_backend.event.PostChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 內容版本追蹤器，用於條件式 GET（ETag / Last-Modified）
+ * 每次寫入事務提交後遞增對應的版本號，讀取端比較版本號即可判斷內容是否變更，不需要查詢資料庫。
+ * 單篇發文及其留言列表的版本以發文ID分散到固定數量的槽位中，記憶體用量固定；
+ * 同一槽位中任一發文變更都會使其他發文的版本一起遞增，最多造成多餘的完整響應，不會誤判為未變更。
+ * 版本號保存在記憶體中，ETag 含有每次啟動隨機產生的實例ID，重新啟動後客戶端會重新取得完整內容。
+ * 只適用於單一實例部署（SQLite 本身即限制為單一實例）。
+ */
+@Component
+public class ContentVersionTracker {
+
+  // 槽位數量（2的次方）
+  static final int STRIPES = 1024;
+
+  private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+  // 發文列表只有一個版本，使用槽位陣列的單一元素以共用遞增邏輯
+  private final AtomicLongArray postListVersions = new AtomicLongArray(1);
+  private final AtomicLongArray postListModified = new AtomicLongArray(1);
+  private final AtomicLongArray postVersions = new AtomicLongArray(STRIPES);
+  private final AtomicLongArray postModified = new AtomicLongArray(STRIPES);
+  private final AtomicLongArray commentVersions = new AtomicLongArray(STRIPES);
+  private final AtomicLongArray commentModified = new AtomicLongArray(STRIPES);
+
+  public ContentVersionTracker() {
+    long startedAt = System.currentTimeMillis();
+    postListModified.set(0, startedAt);
+    for (int i = 0; i < STRIPES; i++) {
+      postModified.set(i, startedAt);
+      commentModified.set(i, startedAt);
+    }
+  }
+
+  /**
+   * 發文變更的事務提交後遞增版本（無事務時立即執行）
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPostChanged(PostChangedEvent event) {
+    bump(postListVersions, postListModified, 0);
+    bump(postVersions, postModified, stripe(event.postId()));
+  }
+
+  /**
+   * 留言變更的事務提交後遞增版本（無事務時立即執行）
+   * 單篇發文含有留言數量，因此一併遞增
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCommentChanged(CommentChangedEvent event) {
+    bump(commentVersions, commentModified, stripe(event.postId()));
+    bump(postVersions, postModified, stripe(event.postId()));
+  }
+
+  /**
+   * 所有發文列表的版本
+   */
+  public ContentVersion postListVersion() {
+    return version("posts", postListVersions, postListModified, 0);
+  }
+
+  /**
+   * 單篇發文的版本
+   */
+  public ContentVersion postVersion(Long postId) {
+    return version("post", postVersions, postModified, stripe(postId));
+  }
+
+  /**
+   * 單篇發文留言列表的版本
+   */
+  public ContentVersion commentListVersion(Long postId) {
+    return version("comments", commentVersions, commentModified, stripe(postId));
+  }
+
+  private ContentVersion version(String kind, AtomicLongArray versions, AtomicLongArray modified, int index) {
+    // 版本在事務提交後才遞增，且呼叫者先取得版本再讀取資料，任何交錯最多造成多餘的完整響應
+    long lastModified = modified.get(index);
+    long version = versions.get(index);
+    return new ContentVersion(instanceId + "-" + kind + "-" + index + "-" + version, lastModified);
+  }
+
+  /**
+   * 遞增版本號並將修改時間設為目前時間
+   * Last-Modified 不可晚於響應時間（RFC 9110 §8.8.2），因此不為同一秒內的多次變更人為推進；
+   * HTTP 日期只精確到秒，同一秒內的變更由每次都會改變的 ETag 判斷（If-None-Match 優先於 If-Modified-Since）。
+   */
+  private static void bump(AtomicLongArray versions, AtomicLongArray modified, int index) {
+    modified.set(index, System.currentTimeMillis());
+    versions.incrementAndGet(index);
+  }
+
+  private static int stripe(Long postId) {
+    return postId == null ? 0 : (int) (postId ^ (postId >>> 32)) & (STRIPES - 1);
+  }
+
+  /**
+   * 內容版本
+   *
+   * @param etag         實體標籤（未加引號）
+   * @param lastModified 最後修改時間（毫秒）
+   */
+  public record ContentVersion(String etag, long lastModified) {
+  }
+}
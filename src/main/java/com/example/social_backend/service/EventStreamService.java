@@ -0,0 +1,280 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.event.CommentChangedEvent;
+import com.example.social_backend.event.PostChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 即時事件推送服務（Server-Sent Events）
+ * 發文與留言的寫入事務提交後，將變更事件推送給所有訂閱者，客戶端不需要輪詢。
+ * 每個訂閱者有固定容量的緩衝佇列，由共用的發送執行緒寫出；提交事務的執行緒只負責放入佇列，不會被客戶端拖慢。
+ * 佇列已滿代表客戶端接收太慢，直接中斷該訂閱，客戶端重新連線後以條件式 GET 補齊錯過的內容。
+ * 實際的通訊端寫入交由寫出執行緒執行，發送執行緒最多等待 send-timeout；停止讀取但未關閉連線的客戶端會在逾時後被中斷，
+ * 卡住的只有該次寫入的執行緒，不會拖慢其他訂閱者。
+ */
+@Service
+public class EventStreamService {
+
+  private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+  // 同時連線的訂閱者上限
+  @Value("${event-stream.max-subscribers:1000}")
+  private int maxSubscribers = 1000;
+
+  // 每個訂閱者等待發送的事件上限，超過時中斷該訂閱
+  @Value("${event-stream.buffer-size:64}")
+  private int bufferSize = 64;
+
+  // 連線逾時（毫秒），逾時後客戶端會自動重新連線
+  @Value("${event-stream.timeout:1800000}")
+  private long timeout = 1800000;
+
+  // 心跳間隔（毫秒），讓代理伺服器保持連線並及早發現已中斷的客戶端
+  @Value("${event-stream.heartbeat-interval:25000}")
+  private long heartbeatInterval = 25000;
+
+  @Value("${event-stream.sender-threads:2}")
+  private int senderThreads = 2;
+
+  // 單次寫出的等待上限（毫秒），逾時的訂閱者會被中斷
+  @Value("${event-stream.send-timeout:10000}")
+  private long sendTimeout = 10000;
+
+  private final ObjectMapper objectMapper;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong eventSequence = new AtomicLong();
+
+  private ExecutorService sender;
+  private ExecutorService writer;
+  private ScheduledExecutorService heartbeat;
+
+  @Autowired
+  public EventStreamService(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @PostConstruct
+  public void start() {
+    AtomicInteger threadCount = new AtomicInteger();
+    sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+      Thread thread = new Thread(runnable, "event-stream-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    // 執行緒數隨同時進行的寫出增減；寫入卡住的執行緒只屬於已被中斷的訂閱者
+    AtomicInteger writerCount = new AtomicInteger();
+    writer = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "event-stream-writer-" + writerCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "event-stream-heartbeat");
+      thread.setDaemon(true);
+      return thread;
+    });
+    heartbeat.scheduleAtFixedRate(() -> broadcast(StreamEvent.HEARTBEAT), heartbeatInterval, heartbeatInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    heartbeat.shutdownNow();
+    for (Subscriber subscriber : subscribers) {
+      drop(subscriber);
+    }
+    sender.shutdown();
+    writer.shutdown();
+  }
+
+  /**
+   * 建立新的訂閱
+   *
+   * @return 事件串流
+   * @throws IllegalStateException 訂閱人數已達上限時拋出
+   */
+  public SseEmitter subscribe() {
+    return register(new SseEmitter(timeout));
+  }
+
+  SseEmitter register(SseEmitter emitter) {
+    if (subscribers.size() >= maxSubscribers) {
+      throw new IllegalStateException("訂閱人數已達上限，請稍後再試");
+    }
+    Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> drop(subscriber));
+    emitter.onError(error -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    enqueue(subscriber, StreamEvent.CONNECTED);
+    return emitter;
+  }
+
+  /**
+   * 目前的訂閱者數量
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * 發文變更的事務提交後推送（無事務時立即推送）
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPostChanged(PostChangedEvent event) {
+    publish("post", event);
+  }
+
+  /**
+   * 留言變更的事務提交後推送（無事務時立即推送）
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCommentChanged(CommentChangedEvent event) {
+    publish("comment", event);
+  }
+
+  private void publish(String name, Object payload) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    // 只序列化一次，所有訂閱者共用同一份資料
+    String data;
+    try {
+      data = objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      logger.warn("無法序列化事件 {}: {}", name, e.getMessage());
+      return;
+    }
+    broadcast(new StreamEvent(name, Long.toString(eventSequence.incrementAndGet()), data));
+  }
+
+  private void broadcast(StreamEvent event) {
+    for (Subscriber subscriber : subscribers) {
+      enqueue(subscriber, event);
+    }
+  }
+
+  private void enqueue(Subscriber subscriber, StreamEvent event) {
+    if (!subscriber.queue.offer(event)) {
+      logger.debug("訂閱者接收過慢，中斷事件串流");
+      drop(subscriber);
+      return;
+    }
+    if (subscriber.scheduled.compareAndSet(false, true)) {
+      sender.execute(() -> drain(subscriber));
+    }
+  }
+
+  /**
+   * 依序寫出訂閱者佇列中的事件，同一訂閱者同時只會有一個發送工作
+   */
+  private void drain(Subscriber subscriber) {
+    try {
+      StreamEvent event;
+      while (subscribers.contains(subscriber) && (event = subscriber.queue.poll()) != null) {
+        send(subscriber, event);
+      }
+    } catch (IOException | IllegalStateException e) {
+      // 客戶端已中斷連線，容器會通知錯誤並完成請求
+      subscribers.remove(subscriber);
+    } catch (TimeoutException e) {
+      logger.debug("訂閱者寫出逾時，中斷事件串流");
+      drop(subscriber);
+    } finally {
+      subscriber.scheduled.set(false);
+      if (!subscriber.queue.isEmpty() && subscribers.contains(subscriber)
+          && subscriber.scheduled.compareAndSet(false, true)) {
+        sender.execute(() -> drain(subscriber));
+      }
+    }
+  }
+
+  /**
+   * 在寫出執行緒上寫出一個事件，最多等待 send-timeout
+   */
+  private void send(Subscriber subscriber, StreamEvent event) throws IOException, TimeoutException {
+    Future<?> write = writer.submit(() -> {
+      subscriber.emitter.send(event.toBuilder());
+      return null;
+    });
+    try {
+      write.get(sendTimeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      write.cancel(true);
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      write.cancel(true);
+      throw new IllegalStateException("等待事件寫出時被中斷", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * 中斷訂閱
+   * SseEmitter 的 complete 與 send 使用同一把鎖，寫入卡住時 complete 也會等待，因此在寫出執行緒上完成串流，
+   * 呼叫者（發佈事件或發送的執行緒）不會被卡住的連線阻塞
+   */
+  private void drop(Subscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      subscriber.queue.clear();
+      writer.execute(subscriber.emitter::complete);
+    }
+  }
+
+  private record Subscriber(SseEmitter emitter, BlockingQueue<StreamEvent> queue, AtomicBoolean scheduled) {
+
+    private Subscriber(SseEmitter emitter, BlockingQueue<StreamEvent> queue) {
+      this(emitter, queue, new AtomicBoolean());
+    }
+  }
+
+  /**
+   * 待發送的事件，name 為 null 時表示只含註解的控制訊息
+   */
+  private record StreamEvent(String name, String id, String data) {
+
+    static final StreamEvent CONNECTED = new StreamEvent(null, null, "connected");
+    static final StreamEvent HEARTBEAT = new StreamEvent(null, null, "heartbeat");
+
+    SseEmitter.SseEventBuilder toBuilder() {
+      if (name == null) {
+        return SseEmitter.event().comment(data);
+      }
+      return SseEmitter.event().name(name).id(id).data(data);
+    }
+  }
+}
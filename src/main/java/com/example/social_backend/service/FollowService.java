@@ -0,0 +1,75 @@
+package com.example.social_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 追蹤關係服務
+ * 追蹤關係、被追蹤者的粉絲數量及追蹤者的首頁時間軸在同一事務中更新。
+ */
+@Service
+public class FollowService {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TimelineService timelineService;
+
+  @Autowired
+  public FollowService(JdbcTemplate jdbcTemplate, TimelineService timelineService) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.timelineService = timelineService;
+  }
+
+  /**
+   * 追蹤用戶，並將對方最近的發文回填到自己的首頁時間軸
+   *
+   * @param followerId 追蹤者ID
+   * @param followeeId 被追蹤者ID
+   * @return 是否新建立了追蹤關係（已追蹤時返回false）
+   * @throws IllegalArgumentException 如果追蹤自己或被追蹤的用戶不存在
+   */
+  @Transactional
+  public boolean follow(Long followerId, Long followeeId) {
+    if (followerId.equals(followeeId)) {
+      throw new IllegalArgumentException("不能追蹤自己");
+    }
+    Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM user WHERE userid = ?)",
+        Boolean.class, followeeId);
+    if (!Boolean.TRUE.equals(exists)) {
+      throw new IllegalArgumentException("找不到ID為 " + followeeId + " 的用戶");
+    }
+
+    int inserted = jdbcTemplate.update(
+        "INSERT OR IGNORE INTO follow (follower_id, followee_id, created_at) VALUES (?, ?, ?)",
+        followerId, followeeId, Timestamp.valueOf(LocalDateTime.now()));
+    if (inserted == 0) {
+      return false;
+    }
+    jdbcTemplate.update("UPDATE user SET follower_count = follower_count + 1 WHERE userid = ?", followeeId);
+    timelineService.backfill(followerId, followeeId);
+    return true;
+  }
+
+  /**
+   * 取消追蹤用戶，並從自己的首頁時間軸移除對方的發文
+   *
+   * @param followerId 追蹤者ID
+   * @param followeeId 被追蹤者ID
+   * @return 是否確實移除了追蹤關係（原本未追蹤時返回false）
+   */
+  @Transactional
+  public boolean unfollow(Long followerId, Long followeeId) {
+    int deleted = jdbcTemplate.update("DELETE FROM follow WHERE follower_id = ? AND followee_id = ?",
+        followerId, followeeId);
+    if (deleted == 0) {
+      return false;
+    }
+    jdbcTemplate.update("UPDATE user SET follower_count = MAX(follower_count - 1, 0) WHERE userid = ?", followeeId);
+    timelineService.removeAuthor(followerId, followeeId);
+    return true;
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.social_backend.service;
+
+/**
+ * 密碼雜湊執行緒池已滿時拋出，控制器應回應 429 讓客戶端稍後重試
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+  public PasswordHashingRejectedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
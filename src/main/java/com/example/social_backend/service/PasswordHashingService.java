@@ -0,0 +1,143 @@
+package com.example.social_backend.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 密碼雜湊服務
+ * BCrypt 每次計算需要數十毫秒的CPU時間，所有雜湊與驗證都在專用且有上限的執行緒池中執行，
+ * 登入或註冊高峰時最多只佔用固定數量的CPU，不會拖慢其他API；
+ * 佇列已滿時立即拒絕（由控制器回應 429），而不是讓請求無限排隊。
+ * 演算法與成本由注入的 PasswordEncoder 決定（見 PasswordEncoderConfig）。
+ */
+@Service
+public class PasswordHashingService {
+
+  // 帶演算法前綴的雜湊，例如 "{bcrypt}$2a$10$..."
+  private static final Pattern PREFIXED_PATTERN = Pattern.compile("\\A\\{[a-z0-9]+}");
+
+  // 加入前綴之前儲存的 BCrypt 雜湊
+  private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * @param passwordEncoder 密碼編碼器，調整演算法或成本後舊密碼會在下次登入時重新雜湊
+   * @param threads         雜湊執行緒數，0 表示使用一半的CPU核心
+   * @param queueCapacity   等待中的雜湊工作上限
+   */
+  @Autowired
+  public PasswordHashingService(
+      PasswordEncoder passwordEncoder,
+      @Value("${password.hashing.threads:0}") int threads,
+      @Value("${password.hashing.queue-capacity:64}") int queueCapacity) {
+    this.passwordEncoder = passwordEncoder;
+    int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * 雜湊密碼
+   *
+   * @param rawPassword 明文密碼
+   * @return 雜湊後的密碼
+   * @throws PasswordHashingRejectedException 執行緒池已滿時拋出
+   */
+  @Timed(value = "password.hashing", extraTags = { "operation", "encode" },
+      description = "密碼雜湊（含等待雜湊執行緒的時間）", histogram = true)
+  public String encode(String rawPassword) {
+    return execute(() -> passwordEncoder.encode(rawPassword));
+  }
+
+  /**
+   * 驗證密碼，驗證成功且儲存的密碼需要升級時一併產生新的雜湊
+   * 需要升級的情況：演算法或成本與目前設定不同，或儲存的是舊版明文密碼。
+   *
+   * @param rawPassword    明文密碼
+   * @param storedPassword 資料庫中的密碼
+   * @return 驗證結果
+   * @throws PasswordHashingRejectedException 執行緒池已滿時拋出
+   */
+  @Timed(value = "password.hashing", extraTags = { "operation", "verify" },
+      description = "密碼驗證（含等待雜湊執行緒的時間）", histogram = true)
+  public PasswordCheck verify(String rawPassword, String storedPassword) {
+    return execute(() -> {
+      if (storedPassword == null) {
+        return PasswordCheck.FAILED;
+      }
+      if (PREFIXED_PATTERN.matcher(storedPassword).lookingAt() || BCRYPT_PATTERN.matcher(storedPassword).matches()) {
+        if (!passwordEncoder.matches(rawPassword, storedPassword)) {
+          return PasswordCheck.FAILED;
+        }
+        String upgraded = passwordEncoder.upgradeEncoding(storedPassword) ? passwordEncoder.encode(rawPassword) : null;
+        return new PasswordCheck(true, upgraded);
+      }
+      // 舊版以明文儲存的密碼，驗證成功後改存雜湊
+      if (MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+          storedPassword.getBytes(StandardCharsets.UTF_8))) {
+        return new PasswordCheck(true, passwordEncoder.encode(rawPassword));
+      }
+      return PasswordCheck.FAILED;
+    });
+  }
+
+  private <T> T execute(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      throw new PasswordHashingRejectedException("系統繁忙，請稍後再試", e);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("等待密碼雜湊時被中斷", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * 密碼驗證結果
+   *
+   * @param matched          密碼是否正確
+   * @param upgradedPassword 需要升級時的新雜湊，否則為null
+   */
+  public record PasswordCheck(boolean matched, String upgradedPassword) {
+
+    static final PasswordCheck FAILED = new PasswordCheck(false, null);
+  }
+}
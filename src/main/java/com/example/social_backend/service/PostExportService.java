@@ -0,0 +1,129 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.PostView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 發文匯出服務
+ * 以 NDJSON（每行一個JSON物件）格式寫出所有發文。
+ * 以 (創建時間, 發文ID) 鍵集分批讀取，每批在一個短的唯讀事務中完整取回後才寫出，
+ * 寫出速度由客戶端決定，寫出期間不持有資料庫連線、並行許可或WAL讀取快照，記憶體用量只與批次大小有關。
+ * 各批次分別讀取，匯出期間新增的發文不會出現，刪除的發文可能仍會出現或被略過。
+ */
+@Service
+public class PostExportService {
+
+  public static final String EXPORT_FIRST_PAGE_SQL = "SELECT postid, userid, content, image, created_at FROM post "
+      + "ORDER BY created_at DESC, postid DESC LIMIT ?";
+
+  public static final String EXPORT_PAGE_BEFORE_SQL = "SELECT postid, userid, content, image, created_at FROM post "
+      + "WHERE (created_at, postid) < (?, ?) ORDER BY created_at DESC, postid DESC LIMIT ?";
+
+  // 每批讀取的發文數，每批寫出後刷新輸出
+  static final int CHUNK_SIZE = 500;
+
+  private static final RowMapper<PostView> POST_MAPPER = (rs, rowNum) -> {
+    Timestamp createdAt = rs.getTimestamp("created_at");
+    return new PostView(rs.getLong("postid"), rs.getLong("userid"), rs.getString("content"), rs.getString("image"),
+        createdAt != null ? createdAt.toLocalDateTime() : null);
+  };
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final JsonFactory jsonFactory;
+  private final ObjectWriter postWriter;
+  private final Semaphore exportPermits;
+
+  @Autowired
+  public PostExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper, @Value("${post-export.max-concurrent:2}") int maxConcurrent) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // 唯讀事務：連線取自讀取池，匯出期間不會佔用寫入連線
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.jsonFactory = objectMapper.getFactory();
+    // 由本類控制刷新時機，不在每個物件寫出後刷新
+    this.postWriter = objectMapper.writerFor(PostView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.exportPermits = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * 開始一次匯出，同時進行的匯出數量有上限，匯出結束（含失敗）後釋放
+   *
+   * @return 串流響應內容
+   * @throws IllegalStateException 同時進行的匯出已達上限時拋出
+   */
+  public StreamingResponseBody openExport() {
+    if (!exportPermits.tryAcquire()) {
+      throw new IllegalStateException("同時進行的匯出已達上限，請稍後再試");
+    }
+    return outputStream -> {
+      try {
+        exportPosts(outputStream);
+      } finally {
+        exportPermits.release();
+      }
+    };
+  }
+
+  /**
+   * 以 NDJSON 格式寫出所有發文（按創建時間和ID降序排序）
+   *
+   * @param outputStream 輸出串流（不會被關閉）
+   * @return 寫出的發文數量
+   * @throws IOException 寫出失敗時拋出（例如客戶端中斷連線）
+   */
+  public long exportPosts(OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // 各物件之間以換行分隔，不使用預設的空白分隔符
+      generator.setRootValueSeparator(null);
+      long count = 0;
+      List<PostView> chunk = readChunk(null);
+      while (!chunk.isEmpty()) {
+        for (PostView post : chunk) {
+          postWriter.writeValue(generator, post);
+          generator.writeRaw('\n');
+        }
+        count += chunk.size();
+        generator.flush();
+        if (chunk.size() < CHUNK_SIZE) {
+          break;
+        }
+        chunk = readChunk(chunk.get(chunk.size() - 1));
+      }
+      return count;
+    }
+  }
+
+  /**
+   * 在獨立的短事務中讀取下一批發文
+   *
+   * @param last 上一批的最後一篇發文，第一批傳入null
+   */
+  private List<PostView> readChunk(PostView last) {
+    return transactionTemplate.execute(status -> last == null
+        ? jdbcTemplate.query(EXPORT_FIRST_PAGE_SQL, POST_MAPPER, CHUNK_SIZE)
+        : jdbcTemplate.query(EXPORT_PAGE_BEFORE_SQL, POST_MAPPER, Timestamp.valueOf(last.createdAt()), last.postId(),
+            CHUNK_SIZE));
+  }
+}
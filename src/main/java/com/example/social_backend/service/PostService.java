@@ -1,15 +1,34 @@
 package com.example.social_backend.service;
 
-import com.example.social_backend.entity.Comment;
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.FeedItemDto;
+import com.example.social_backend.dto.PostView;
 import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.CommentChangedEvent;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.repository.AtomicInsertTemplate;
+import com.example.social_backend.repository.AtomicInsertTemplate.Insert;
+import com.example.social_backend.repository.CommentRepository;
 import com.example.social_backend.repository.PostRepository;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.CursorCodec;
 import com.example.social_backend.util.SanitizerUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,26 +36,54 @@ import java.util.Map;
 @Service
 public class PostService {
 
+  // 動態牆每頁最大筆數
+  public static final int MAX_FEED_PAGE_SIZE = 50;
+
+  // 動態牆每篇發文最多預覽的留言數
+  public static final int MAX_COMMENT_PREVIEW_SIZE = 10;
+
+  // 發文與第一則留言同時建立，留言數量直接寫入為1
+  private static final String INSERT_POST_WITH_COMMENT_SQL = "INSERT INTO post "
+      + "(userid, content, image, created_at, comment_count, last_comment_at) VALUES (?, ?, ?, ?, 1, ?) RETURNING postid";
+
+  private static final String INSERT_COMMENT_SQL =
+      "INSERT INTO comment (userid, postid, content, created_at) VALUES (?, ?, ?, ?) RETURNING commentid";
+
   private final PostRepository postRepository;
+  private final CommentRepository commentRepository;
   private final SanitizerUtil sanitizerUtil;
-  private final JdbcTemplate jdbcTemplate;
+  private final AtomicInsertTemplate atomicInsertTemplate;
+  private final WriteBatcher writeBatcher;
+  private final SearchIndexRepository searchIndexRepository;
+  private final CacheManager cacheManager;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
-  public PostService(PostRepository postRepository, SanitizerUtil sanitizerUtil, JdbcTemplate jdbcTemplate) {
+  public PostService(PostRepository postRepository, CommentRepository commentRepository,
+      SanitizerUtil sanitizerUtil, AtomicInsertTemplate atomicInsertTemplate, WriteBatcher writeBatcher,
+      SearchIndexRepository searchIndexRepository, CacheManager cacheManager,
+      ApplicationEventPublisher eventPublisher) {
     this.postRepository = postRepository;
+    this.commentRepository = commentRepository;
     this.sanitizerUtil = sanitizerUtil;
-    this.jdbcTemplate = jdbcTemplate;
+    this.atomicInsertTemplate = atomicInsertTemplate;
+    this.writeBatcher = writeBatcher;
+    this.searchIndexRepository = searchIndexRepository;
+    this.cacheManager = cacheManager;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
    * 創建新發文
+   * 寫入經由批次處理器與同時到達的其他寫入合併提交
    *
    * @param userId  用戶ID
    * @param content 發文內容
    * @param image   圖片URL (可選)
    * @return 已創建的發文
    */
-  @Transactional
+  @Caching(put = @CachePut(cacheNames = CacheConfig.POSTS_CACHE, key = "#result.postId"),
+      evict = @CacheEvict(cacheNames = CacheConfig.USER_POSTS_CACHE, key = "#userId"))
   public Post createPost(Long userId, String content, String image) {
     // 驗證輸入
     if (userId == null) {
@@ -56,12 +103,17 @@ public class PostService {
     String sanitizedImage = sanitizerUtil.sanitizeUrl(image);
 
     // 創建並保存發文
-    Post post = new Post(userId, sanitizedContent, sanitizedImage);
-    return postRepository.save(post);
+    return writeBatcher.submit(() -> {
+      Post post = postRepository.save(new Post(userId, sanitizedContent, sanitizedImage));
+      searchIndexRepository.indexPost(post.getPostId(), sanitizedContent);
+      eventPublisher.publishEvent(new PostChangedEvent(post.getPostId(), PostChangedEvent.Type.CREATED));
+      return post;
+    });
   }
 
   /**
    * 創建發文和留言（使用事務保證原子性）
+   * 兩條插入語句經由批次處理器在同一事務中執行
    *
    * @param userId         用戶ID
    * @param postContent    發文內容
@@ -69,7 +121,9 @@ public class PostService {
    * @param commentContent 留言內容
    * @return 包含創建的發文ID和留言ID的Map
    */
-  @Transactional
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.POSTS_CACHE, key = "#result['postId']"),
+      @CacheEvict(cacheNames = CacheConfig.USER_POSTS_CACHE, key = "#userId") })
   public Map<String, Long> createPostAndComment(Long userId, String postContent, String postImage,
       String commentContent) {
     // 驗證輸入
@@ -98,22 +152,21 @@ public class PostService {
     String sanitizedPostImage = sanitizerUtil.sanitizeUrl(postImage);
     String sanitizedCommentContent = sanitizerUtil.sanitize(commentContent);
 
-    // 使用單一事務執行SQL操作
-    // 步驟1：插入發文
-    jdbcTemplate.update(
-        "INSERT INTO post (user_id, content, image, created_at) VALUES (?, ?, ?, ?)",
-        userId, sanitizedPostContent, sanitizedPostImage, LocalDateTime.now());
-
-    // 步驟2：獲取最近插入的發文ID
-    Long postId = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
-
-    // 步驟3：插入留言
-    jdbcTemplate.update(
-        "INSERT INTO comment (user_id, post_id, content, created_at) VALUES (?, ?, ?, ?)",
-        userId, postId, sanitizedCommentContent, LocalDateTime.now());
-
-    // 步驟4：獲取最近插入的留言ID
-    Long commentId = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+    // 在同一事務、同一連線上插入發文和留言，以 RETURNING 直接取回ID，留言引用剛產生的發文ID
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    List<Long> ids = writeBatcher.submit(() -> {
+      List<Long> insertedIds = atomicInsertTemplate.insertAll(List.of(
+          Insert.of(INSERT_POST_WITH_COMMENT_SQL, userId, sanitizedPostContent, sanitizedPostImage, now, now),
+          new Insert(INSERT_COMMENT_SQL,
+              previousIds -> new Object[] { userId, previousIds.get(0), sanitizedCommentContent, now })));
+      searchIndexRepository.indexPost(insertedIds.get(0), sanitizedPostContent);
+      searchIndexRepository.indexComment(insertedIds.get(1), sanitizedCommentContent);
+      eventPublisher.publishEvent(new PostChangedEvent(insertedIds.get(0), PostChangedEvent.Type.CREATED));
+      eventPublisher.publishEvent(new CommentChangedEvent(insertedIds.get(0), insertedIds.get(1)));
+      return insertedIds;
+    });
+    Long postId = ids.get(0);
+    Long commentId = ids.get(1);
 
     // 返回創建的ID
     Map<String, Long> result = new HashMap<>();
@@ -124,21 +177,90 @@ public class PostService {
 
   /**
    * 獲取所有發文（按創建時間降序排序）
+   * 唯讀事務：連線取自讀取池，Hibernate 不進行 flush
    *
    * @return 發文列表
    */
-  public List<Post> getAllPosts() {
-    return postRepository.findAllByOrderByCreatedAtDesc();
+  @Transactional(readOnly = true)
+  public List<PostView> getAllPosts() {
+    return postRepository.findViewsByOrderByCreatedAtDesc();
+  }
+
+  /**
+   * 以鍵集分頁方式獲取動態牆（按創建時間和ID降序排序）
+   *
+   * @param cursor 上一頁返回的游標，第一頁傳入null
+   * @param limit  每頁筆數，超出範圍時會被限制在 1 到 {@value #MAX_FEED_PAGE_SIZE} 之間
+   * @return 發文分頁
+   * @throws IllegalArgumentException 如果游標格式不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<Post> getFeed(String cursor, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+
+    // 多取一筆以判斷是否還有下一頁
+    List<Post> posts;
+    if (cursor == null || cursor.isEmpty()) {
+      posts = postRepository.findFeedFirstPage(pageSize + 1);
+    } else {
+      CursorCodec.Cursor position = CursorCodec.decode(cursor);
+      posts = postRepository.findFeedPageBefore(position.createdAt(), position.id(), pageSize + 1);
+    }
+
+    if (posts.size() <= pageSize) {
+      return new CursorPage<>(posts, null);
+    }
+    List<Post> page = posts.subList(0, pageSize);
+    Post last = page.get(pageSize - 1);
+    return new CursorPage<>(page, CursorCodec.encode(last.getCreatedAt(), last.getPostId()));
+  }
+
+  /**
+   * 以鍵集分頁方式獲取動態牆，並為每篇發文附上留言數量與前幾則留言
+   * 留言數量直接取自發文的計數欄位；整頁的留言預覽以單一分組查詢取得，不需要預覽時不查詢留言
+   *
+   * @param cursor      上一頁返回的游標，第一頁傳入null
+   * @param limit       每頁筆數
+   * @param previewSize 每篇發文預覽的留言數，超出範圍時會被限制在 0 到 {@value #MAX_COMMENT_PREVIEW_SIZE} 之間
+   * @return 含留言預覽的發文分頁
+   * @throws IllegalArgumentException 如果游標格式不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<FeedItemDto> getFeedWithComments(String cursor, int limit, int previewSize) {
+    CursorPage<Post> page = getFeed(cursor, limit);
+    int commentLimit = Math.max(0, Math.min(previewSize, MAX_COMMENT_PREVIEW_SIZE));
+
+    Map<Long, List<CommentView>> previews = new HashMap<>();
+    List<Long> postIds = page.getItems().stream()
+        .filter(post -> post.getCommentCount() > 0)
+        .map(Post::getPostId)
+        .toList();
+    if (commentLimit > 0 && !postIds.isEmpty()) {
+      for (CommentRepository.CommentPreviewRow row : commentRepository.findPreviewRowsByPostIds(postIds,
+          commentLimit)) {
+        previews.computeIfAbsent(row.getPostId(), id -> new ArrayList<>()).add(new CommentView(
+            row.getCommentId(), row.getUserId(), row.getPostId(), row.getContent(), row.getCreatedAt()));
+      }
+    }
+
+    List<FeedItemDto> items = page.getItems().stream()
+        .map(post -> new FeedItemDto(post, post.getCommentCount(),
+            previews.getOrDefault(post.getPostId(), List.of())))
+        .toList();
+    return new CursorPage<>(items, page.getNextCursor());
   }
 
   /**
    * 獲取特定用戶的所有發文（按創建時間降序排序）
+   * 唯讀事務：連線取自讀取池，Hibernate 不進行 flush
    *
    * @param userId 用戶ID
    * @return 發文列表
    */
-  public List<Post> getPostsByUserId(Long userId) {
-    return postRepository.findByUserIdOrderByCreatedAtDesc(userId);
+  @Transactional(readOnly = true)
+  @Cacheable(cacheNames = CacheConfig.USER_POSTS_CACHE, key = "#userId")
+  public List<PostView> getPostsByUserId(Long userId) {
+    return postRepository.findViewsByUserIdOrderByCreatedAtDesc(userId);
   }
 
   /**
@@ -147,6 +269,7 @@ public class PostService {
    * @param postId 發文ID
    * @return 發文
    */
+  @Cacheable(cacheNames = CacheConfig.POSTS_CACHE, key = "#postId")
   public Post getPostById(Long postId) {
     return postRepository.findById(postId)
         .orElseThrow(() -> new IllegalArgumentException("找不到ID為 " + postId + " 的發文"));
@@ -154,6 +277,7 @@ public class PostService {
 
   /**
    * 更新發文
+   * 快取的發文在事務提交時（afterCommit）替換，早於版本遞增（afterCompletion），讀到新版本的請求不會再取得舊的快取內容。
    *
    * @param userId  請求用戶ID（用於權限檢查）
    * @param postId  要更新的發文ID
@@ -162,6 +286,7 @@ public class PostService {
    * @return 更新後的發文
    */
   @Transactional
+  @CacheEvict(cacheNames = CacheConfig.USER_POSTS_CACHE, key = "#userId")
   public Post updatePost(Long userId, Long postId, String content, String image) {
     // 獲取發文
     Post post = getPostById(postId);
@@ -189,16 +314,26 @@ public class PostService {
     post.setImage(sanitizedImage);
 
     // 保存並返回更新後的發文
-    return postRepository.save(post);
+    Post updatedPost = postRepository.save(post);
+    searchIndexRepository.indexPost(postId, sanitizedContent);
+    // 交易感知快取延後到提交時寫入；快取註解在事務攔截器之外，會晚於版本遞增才執行
+    Cache postsCache = cacheManager.getCache(CacheConfig.POSTS_CACHE);
+    if (postsCache != null) {
+      postsCache.put(postId, updatedPost);
+    }
+    eventPublisher.publishEvent(new PostChangedEvent(postId, PostChangedEvent.Type.UPDATED));
+    return updatedPost;
   }
 
   /**
    * 刪除發文
+   * 快取的發文在事務提交時清除，早於版本遞增，讀到新版本的請求不會再取得已刪除的發文。
    *
    * @param userId 請求用戶ID（用於權限檢查）
    * @param postId 要刪除的發文ID
    */
   @Transactional
+  @CacheEvict(cacheNames = CacheConfig.USER_POSTS_CACHE, key = "#userId")
   public void deletePost(Long userId, Long postId) {
     // 獲取發文
     Post post = getPostById(postId);
@@ -210,5 +345,11 @@ public class PostService {
 
     // 刪除發文
     postRepository.delete(post);
+    searchIndexRepository.removePost(postId);
+    Cache postsCache = cacheManager.getCache(CacheConfig.POSTS_CACHE);
+    if (postsCache != null) {
+      postsCache.evict(postId);
+    }
+    eventPublisher.publishEvent(new PostChangedEvent(postId, PostChangedEvent.Type.DELETED));
   }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.util.SearchTextSegmenter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 發文與留言的全文檢索
+ * 以 FTS5 索引比對，結果按 BM25 相關度排序；索引只保存詞語，內容由原資料表聯結取得。
+ */
+@Service
+public class SearchService {
+
+  // 搜尋結果每頁最大筆數
+  public static final int MAX_SEARCH_PAGE_SIZE = 50;
+
+  // 可翻閱的最大結果數，更後面的結果相關度已很低
+  public static final int MAX_SEARCH_RESULTS = 1000;
+
+  public static final String POST_SEARCH_SQL = "SELECT p.postid, p.userid, p.content, p.image, p.created_at "
+      + "FROM post_fts JOIN post p ON p.postid = post_fts.rowid "
+      + "WHERE post_fts MATCH ? ORDER BY post_fts.rank LIMIT ? OFFSET ?";
+
+  public static final String COMMENT_SEARCH_SQL = "SELECT c.commentid, c.userid, c.postid, c.content, c.created_at "
+      + "FROM comment_fts JOIN comment c ON c.commentid = comment_fts.rowid "
+      + "WHERE comment_fts MATCH ? ORDER BY comment_fts.rank LIMIT ? OFFSET ?";
+
+  private static final RowMapper<PostView> POST_MAPPER = (rs, rowNum) -> new PostView(
+      rs.getLong("postid"), rs.getLong("userid"), rs.getString("content"), rs.getString("image"),
+      toLocalDateTime(rs.getTimestamp("created_at")));
+
+  private static final RowMapper<CommentView> COMMENT_MAPPER = (rs, rowNum) -> new CommentView(
+      rs.getLong("commentid"), rs.getLong("userid"), rs.getLong("postid"), rs.getString("content"),
+      toLocalDateTime(rs.getTimestamp("created_at")));
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public SearchService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * 搜尋發文
+   *
+   * @param query  搜尋關鍵字，以空白分隔的詞都必須出現，以 * 結尾的詞為前綴查詢
+   * @param cursor 上一頁返回的游標，第一頁傳入null
+   * @param limit  每頁筆數，超出範圍時會被限制在 1 到 {@value #MAX_SEARCH_PAGE_SIZE} 之間
+   * @return 按相關度排序的發文分頁
+   * @throws IllegalArgumentException 如果關鍵字或游標不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<PostView> searchPosts(String query, String cursor, int limit) {
+    return search(POST_SEARCH_SQL, POST_MAPPER, query, cursor, limit);
+  }
+
+  /**
+   * 搜尋留言
+   *
+   * @param query  搜尋關鍵字，以空白分隔的詞都必須出現，以 * 結尾的詞為前綴查詢
+   * @param cursor 上一頁返回的游標，第一頁傳入null
+   * @param limit  每頁筆數，超出範圍時會被限制在 1 到 {@value #MAX_SEARCH_PAGE_SIZE} 之間
+   * @return 按相關度排序的留言分頁
+   * @throws IllegalArgumentException 如果關鍵字或游標不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<CommentView> searchComments(String query, String cursor, int limit) {
+    return search(COMMENT_SEARCH_SQL, COMMENT_MAPPER, query, cursor, limit);
+  }
+
+  /**
+   * 相關度排序的結果沒有穩定的鍵集位置，游標記錄已返回的筆數
+   */
+  private <T> CursorPage<T> search(String sql, RowMapper<T> mapper, String query, String cursor, int limit) {
+    String matchQuery = SearchTextSegmenter.toMatchQuery(query);
+    int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+    int offset = decodeOffset(cursor);
+
+    // 多取一筆以判斷是否還有下一頁
+    List<T> results = jdbcTemplate.query(sql, mapper, matchQuery, pageSize + 1, offset);
+    if (results.size() <= pageSize || offset + pageSize >= MAX_SEARCH_RESULTS) {
+      return new CursorPage<>(results.subList(0, Math.min(results.size(), pageSize)), null);
+    }
+    return new CursorPage<>(results.subList(0, pageSize), encodeOffset(offset + pageSize));
+  }
+
+  private static String encodeOffset(int offset) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(("search|" + offset).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static int decodeOffset(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (!raw.startsWith("search|")) {
+        throw new IllegalArgumentException("無效的分頁游標");
+      }
+      int offset = Integer.parseInt(raw.substring("search|".length()));
+      if (offset < 0 || offset >= MAX_SEARCH_RESULTS) {
+        throw new IllegalArgumentException("無效的分頁游標");
+      }
+      return offset;
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("無效的分頁游標");
+    }
+  }
+
+  private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
@@ -0,0 +1,262 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.util.CursorCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 首頁時間軸服務
+ * 發文建立後由背景執行緒寫入作者及所有粉絲的時間軸（寫入時擴散），讀取首頁時只需要對時間軸主鍵做一次範圍掃描，
+ * 與追蹤了多少帳號無關。
+ * 粉絲數超過門檻的帳號不擴散，避免一篇發文寫入大量資料列；這些帳號的發文在讀取時從其發文索引取出再合併。
+ */
+@Service
+public class TimelineService {
+
+  private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+  // 首頁時間軸每頁最大筆數
+  public static final int MAX_TIMELINE_PAGE_SIZE = 50;
+
+  // 追蹤後回填的對方最近發文數
+  static final int FOLLOW_BACKFILL_SIZE = 50;
+
+  public static final String TIMELINE_FIRST_PAGE_SQL = "SELECT p.postid, p.userid, p.content, p.image, p.created_at "
+      + "FROM home_timeline t JOIN post p ON p.postid = t.postid WHERE t.userid = ? "
+      + "ORDER BY t.created_at DESC, t.postid DESC LIMIT ?";
+
+  public static final String TIMELINE_PAGE_BEFORE_SQL = "SELECT p.postid, p.userid, p.content, p.image, p.created_at "
+      + "FROM home_timeline t JOIN post p ON p.postid = t.postid WHERE t.userid = ? "
+      + "AND (t.created_at, t.postid) < (?, ?) ORDER BY t.created_at DESC, t.postid DESC LIMIT ?";
+
+  public static final String AUTHOR_FIRST_PAGE_SQL = "SELECT postid, userid, content, image, created_at FROM post "
+      + "WHERE userid = ? ORDER BY created_at DESC, postid DESC LIMIT ?";
+
+  public static final String AUTHOR_PAGE_BEFORE_SQL = "SELECT postid, userid, content, image, created_at FROM post "
+      + "WHERE userid = ? AND (created_at, postid) < (?, ?) ORDER BY created_at DESC, postid DESC LIMIT ?";
+
+  public static final String LARGE_FOLLOWEES_SQL = "SELECT f.followee_id FROM follow f "
+      + "JOIN user u ON u.userid = f.followee_id WHERE f.follower_id = ? AND u.follower_count > ?";
+
+  public static final String FAN_OUT_SQL = "INSERT OR IGNORE INTO home_timeline (userid, created_at, postid, author_id) "
+      + "SELECT f.follower_id, p.created_at, p.postid, p.userid FROM post p "
+      + "JOIN follow f ON f.followee_id = p.userid WHERE p.postid = ?";
+
+  private static final String INSERT_AUTHOR_ENTRY_SQL =
+      "INSERT OR IGNORE INTO home_timeline (userid, created_at, postid, author_id) "
+          + "SELECT userid, created_at, postid, userid FROM post WHERE postid = ?";
+
+  private static final String AUTHOR_FOLLOWER_COUNT_SQL =
+      "SELECT u.follower_count FROM post p JOIN user u ON u.userid = p.userid WHERE p.postid = ?";
+
+  private static final String BACKFILL_SQL = "INSERT OR IGNORE INTO home_timeline (userid, created_at, postid, author_id) "
+      + "SELECT ?, created_at, postid, userid FROM post WHERE userid = ? ORDER BY created_at DESC, postid DESC LIMIT ?";
+
+  private static final RowMapper<PostView> POST_MAPPER = (rs, rowNum) -> {
+    Timestamp createdAt = rs.getTimestamp("created_at");
+    return new PostView(rs.getLong("postid"), rs.getLong("userid"), rs.getString("content"), rs.getString("image"),
+        createdAt != null ? createdAt.toLocalDateTime() : null);
+  };
+
+  private static final Comparator<PostView> NEWEST_FIRST = Comparator.comparing(PostView::createdAt)
+      .thenComparing(PostView::postId).reversed();
+
+  // 粉絲數超過此值的帳號改為讀取時合併
+  @Value("${timeline.fanout.max-followers:10000}")
+  private long maxFanoutFollowers = 10000;
+
+  // 等待擴散的發文上限
+  @Value("${timeline.fanout.queue-capacity:10000}")
+  private int queueCapacity = 10000;
+
+  // 佇列已滿時發佈事件的執行緒最多等待的毫秒數，逾時則放棄該次更新並記錄警告
+  @Value("${timeline.fanout.enqueue-timeout-ms:100}")
+  private long enqueueTimeoutMillis = 100;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  private ThreadPoolExecutor fanoutExecutor;
+
+  @Autowired
+  public TimelineService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    // 擴散一律在獨立的事務中執行，不會加入呼叫端尚未結束的事務
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @PostConstruct
+  public void start() {
+    // 單一執行緒依序處理，同一篇發文的刪除不會早於擴散；任務從不在發佈事件的執行緒上執行，
+    // 發文的事件由寫入批次執行緒在事務完成後發佈，在該執行緒上擴散會拖慢排隊中的寫入
+    fanoutExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "timeline-fanout");
+          thread.setDaemon(true);
+          return thread;
+        }, (task, executor) -> {
+          // 佇列已滿時等待有限時間，逾時則拒絕
+          try {
+            if (executor.isShutdown()
+                || !executor.getQueue().offer(task, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+              throw new RejectedExecutionException("首頁時間軸更新佇列已滿");
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待首頁時間軸更新佇列時被中斷", e);
+          }
+        });
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    fanoutExecutor.shutdown();
+    fanoutExecutor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * 發文建立或刪除的事務提交後，在背景更新時間軸（無事務時立即排入）
+   * 佇列持續已滿時放棄該次更新：未擴散的發文仍可從作者的個人頁面看到，未移除的項目在讀取時會因發文已不存在而被略過
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPostChanged(PostChangedEvent event) {
+    try {
+      if (event.type() == PostChangedEvent.Type.CREATED) {
+        fanoutExecutor.execute(() -> runQuietly(() -> fanOut(event.postId())));
+      } else if (event.type() == PostChangedEvent.Type.DELETED) {
+        fanoutExecutor.execute(() -> runQuietly(() -> removePost(event.postId())));
+      }
+    } catch (RejectedExecutionException e) {
+      logger.warn("略過發文 {} 的首頁時間軸更新 ({}): {}", event.postId(), event.type(), e.getMessage());
+    }
+  }
+
+  /**
+   * 將發文寫入作者及粉絲的時間軸，粉絲數超過門檻時只寫入作者自己的時間軸
+   *
+   * @param postId 發文ID
+   * @return 寫入的時間軸項目數
+   */
+  int fanOut(Long postId) {
+    return transactionTemplate.execute(status -> {
+      List<Long> followerCounts = jdbcTemplate.queryForList(AUTHOR_FOLLOWER_COUNT_SQL, Long.class, postId);
+      if (followerCounts.isEmpty()) {
+        // 發文已被刪除
+        return 0;
+      }
+      int inserted = jdbcTemplate.update(INSERT_AUTHOR_ENTRY_SQL, postId);
+      if (followerCounts.get(0) <= maxFanoutFollowers) {
+        inserted += jdbcTemplate.update(FAN_OUT_SQL, postId);
+      }
+      return inserted;
+    });
+  }
+
+  /**
+   * 從所有時間軸移除發文
+   */
+  void removePost(Long postId) {
+    jdbcTemplate.update("DELETE FROM home_timeline WHERE postid = ?", postId);
+  }
+
+  /**
+   * 追蹤後將對方最近的發文回填到追蹤者的時間軸，須在追蹤的事務中呼叫
+   */
+  void backfill(Long followerId, Long followeeId) {
+    jdbcTemplate.update(BACKFILL_SQL, followerId, followeeId, FOLLOW_BACKFILL_SIZE);
+  }
+
+  /**
+   * 取消追蹤後從追蹤者的時間軸移除對方的發文，須在取消追蹤的事務中呼叫
+   */
+  void removeAuthor(Long followerId, Long followeeId) {
+    jdbcTemplate.update("DELETE FROM home_timeline WHERE userid = ? AND author_id = ?", followerId, followeeId);
+  }
+
+  /**
+   * 以鍵集分頁方式獲取首頁時間軸（自己及追蹤對象的發文，按創建時間和ID降序排序）
+   *
+   * @param userId 用戶ID
+   * @param cursor 上一頁返回的游標，第一頁傳入null
+   * @param limit  每頁筆數，超出範圍時會被限制在 1 到 {@value #MAX_TIMELINE_PAGE_SIZE} 之間
+   * @return 發文分頁
+   * @throws IllegalArgumentException 如果游標格式不正確
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<PostView> getHomeTimeline(Long userId, String cursor, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_TIMELINE_PAGE_SIZE));
+    CursorCodec.Cursor position = cursor == null || cursor.isEmpty() ? null : CursorCodec.decode(cursor);
+
+    // 多取一筆以判斷是否還有下一頁
+    List<PostView> posts = new ArrayList<>(
+        queryPage(TIMELINE_FIRST_PAGE_SQL, TIMELINE_PAGE_BEFORE_SQL, userId, position, pageSize + 1));
+
+    // 合併未擴散的大帳號發文，同一篇發文可能在超過門檻前已寫入時間軸
+    List<Long> largeFollowees = jdbcTemplate.queryForList(LARGE_FOLLOWEES_SQL, Long.class, userId,
+        maxFanoutFollowers);
+    if (!largeFollowees.isEmpty()) {
+      Set<Long> seen = new HashSet<>();
+      posts.forEach(post -> seen.add(post.postId()));
+      for (Long followeeId : largeFollowees) {
+        for (PostView post : queryPage(AUTHOR_FIRST_PAGE_SQL, AUTHOR_PAGE_BEFORE_SQL, followeeId, position,
+            pageSize + 1)) {
+          if (seen.add(post.postId())) {
+            posts.add(post);
+          }
+        }
+      }
+      posts.sort(NEWEST_FIRST);
+    }
+
+    if (posts.size() <= pageSize) {
+      return new CursorPage<>(posts, null);
+    }
+    List<PostView> page = posts.subList(0, pageSize);
+    PostView last = page.get(pageSize - 1);
+    return new CursorPage<>(page, CursorCodec.encode(last.createdAt(), last.postId()));
+  }
+
+  private List<PostView> queryPage(String firstPageSql, String pageBeforeSql, Long ownerId,
+      CursorCodec.Cursor position, int limit) {
+    if (position == null) {
+      return jdbcTemplate.query(firstPageSql, POST_MAPPER, ownerId, limit);
+    }
+    return jdbcTemplate.query(pageBeforeSql, POST_MAPPER, ownerId, Timestamp.valueOf(position.createdAt()),
+        position.id(), limit);
+  }
+
+  private void runQuietly(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      logger.warn("更新首頁時間軸失敗: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,386 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.dto.TrendingPost;
+import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 熱門發文排行
+ * 每次瀏覽及留言時在記憶體中遞增發文的熱度分數，查詢排行不存取資料庫。
+ * 分數按半衰期指數衰減，以前向衰減（forward decay）保存：每次互動的權重乘上 e^(λ(t - 基準時間))，
+ * 所有分數以相同比例衰減，排名不隨時間改變，因此只有被互動的那一篇需要重新排序。
+ * 只保留分數最高的固定數量發文，超過時淘汰分數最低者；設定快照檔路徑時排行定期寫入快照檔，重啟後從快照恢復。
+ * 瀏覽是最頻繁的互動，先以無鎖的計數器累計，在查詢排行、寫入快照或累計的發文數超過上限時才併入排行，
+ * 單篇發文的讀取不會在同一把鎖上排隊。
+ */
+@Service
+public class TrendingService {
+
+  private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+  // 指數超過此值時重設基準時間，避免分數溢位（e^709 約為 double 的上限）
+  private static final double MAX_EXPONENT = 500;
+
+  private static final Comparator<Entry> BY_SCORE = Comparator.comparingDouble(Entry::score)
+      .thenComparing(entry -> entry.post().postId());
+
+  // 熱度減半所需的時間（毫秒）
+  @Value("${trending.half-life:21600000}")
+  private long halfLife = 21600000;
+
+  @Value("${trending.weight.view:1}")
+  private double viewWeight = 1;
+
+  @Value("${trending.weight.comment:5}")
+  private double commentWeight = 5;
+
+  // 排行最多返回的筆數
+  @Value("${trending.top-k:50}")
+  private int topK = 50;
+
+  // 記憶體中保留的發文數上限
+  @Value("${trending.capacity:10000}")
+  private int capacity = 10000;
+
+  // 快照檔路徑，留空（預設）表示不保存快照，部署時再指定
+  @Value("${trending.snapshot.path:}")
+  private String snapshotPath = "";
+
+  // 快照間隔（毫秒），排行未變更時不寫入
+  @Value("${trending.snapshot.interval:60000}")
+  private long snapshotInterval = 60000;
+
+  private final ObjectMapper objectMapper;
+  private final PostRepository postRepository;
+
+  // 尚未併入排行的瀏覽次數
+  private final Map<Long, PendingViews> pendingViews = new ConcurrentHashMap<>();
+
+  // 以下欄位由 this 保護
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final TreeSet<Entry> ranking = new TreeSet<>(BY_SCORE);
+  // 最近刪除的發文ID（最多 capacity 筆），刪除前已載入的發文在刪除後才記錄互動時不會重新加入排行
+  private final Set<Long> removed = new LinkedHashSet<>();
+  private long baseMillis = System.currentTimeMillis();
+  private boolean dirty;
+
+  private ScheduledExecutorService scheduler;
+
+  @Autowired
+  public TrendingService(ObjectMapper objectMapper, PostRepository postRepository) {
+    this.objectMapper = objectMapper;
+    this.postRepository = postRepository;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (snapshotPath.isEmpty()) {
+      return;
+    }
+    loadSnapshot();
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "trending-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::saveSnapshotQuietly, snapshotInterval, snapshotInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      saveSnapshotQuietly();
+    }
+  }
+
+  /**
+   * 記錄一次發文瀏覽，只遞增計數器，不取得排行的鎖
+   */
+  public void recordView(Post post) {
+    PendingViews views = pendingViews.get(post.getPostId());
+    if (views == null) {
+      PendingViews created = new PendingViews(toView(post), new LongAdder());
+      views = pendingViews.putIfAbsent(post.getPostId(), created);
+      if (views == null) {
+        views = created;
+      }
+    }
+    views.count().increment();
+    if (pendingViews.size() > capacity) {
+      flushViews(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * 記錄發文的一則新留言
+   */
+  public void recordComment(Post post) {
+    record(toView(post), commentWeight, System.currentTimeMillis());
+  }
+
+  /**
+   * 發文更新後取代排行中的內容，分數不變
+   */
+  synchronized void refresh(Post post) {
+    pendingViews.computeIfPresent(post.getPostId(), (postId, views) -> new PendingViews(toView(post), views.count()));
+    Entry existing = entries.get(post.getPostId());
+    if (existing == null) {
+      return;
+    }
+    ranking.remove(existing);
+    Entry updated = new Entry(toView(post), existing.score());
+    entries.put(post.getPostId(), updated);
+    ranking.add(updated);
+    dirty = true;
+  }
+
+  /**
+   * 發文更新或刪除的事務提交後更新排行（無事務時立即更新），回滾的變更不會進入排行
+   * 只有排行中的發文才在更新後重新讀取內容；發文ID在刪除最大ID後可能被新發文重用，因此建立發文時解除該ID的刪除記錄
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPostChanged(PostChangedEvent event) {
+    if (event.type() == PostChangedEvent.Type.UPDATED) {
+      if (isTracked(event.postId())) {
+        postRepository.findById(event.postId()).ifPresent(this::refresh);
+      }
+    } else if (event.type() == PostChangedEvent.Type.DELETED) {
+      remove(event.postId());
+    } else if (event.type() == PostChangedEvent.Type.CREATED) {
+      synchronized (this) {
+        removed.remove(event.postId());
+      }
+    }
+  }
+
+  private synchronized boolean isTracked(Long postId) {
+    return entries.containsKey(postId) || pendingViews.containsKey(postId);
+  }
+
+  synchronized void remove(Long postId) {
+    pendingViews.remove(postId);
+    removed.add(postId);
+    if (removed.size() > capacity) {
+      Iterator<Long> eldest = removed.iterator();
+      eldest.next();
+      eldest.remove();
+    }
+    Entry existing = entries.remove(postId);
+    if (existing != null) {
+      ranking.remove(existing);
+      dirty = true;
+    }
+  }
+
+  /**
+   * 獲取熱門發文，按目前熱度降序排序
+   *
+   * @param limit 筆數，超出範圍時會被限制在 1 到 trending.top-k 之間
+   * @return 熱門發文列表
+   */
+  public List<TrendingPost> getTrending(int limit) {
+    return getTrending(limit, System.currentTimeMillis());
+  }
+
+  synchronized List<TrendingPost> getTrending(int limit, long now) {
+    flushViews(now);
+    int size = Math.max(1, Math.min(limit, topK));
+    double decay = Math.exp(-decayRate() * (now - baseMillis));
+    List<TrendingPost> trending = new ArrayList<>(Math.min(size, ranking.size()));
+    Iterator<Entry> iterator = ranking.descendingIterator();
+    while (iterator.hasNext() && trending.size() < size) {
+      Entry entry = iterator.next();
+      PostView post = entry.post();
+      trending.add(new TrendingPost(post.postId(), post.userId(), post.content(), post.image(), post.createdAt(),
+          entry.score() * decay));
+    }
+    return trending;
+  }
+
+  /**
+   * 將累計的瀏覽併入排行，以併入的時間計算權重（誤差遠小於半衰期）
+   * 計數器歸零後保留一輪，下一輪仍沒有新瀏覽時才移除；與移除同時發生的瀏覽最多遺失一次
+   */
+  synchronized void flushViews(long now) {
+    for (Map.Entry<Long, PendingViews> pending : pendingViews.entrySet()) {
+      long count = pending.getValue().count().sumThenReset();
+      if (count == 0) {
+        pendingViews.remove(pending.getKey(), pending.getValue());
+      } else {
+        record(pending.getValue().post(), count * viewWeight, now);
+      }
+    }
+  }
+
+  synchronized void record(PostView post, double weight, long now) {
+    if (removed.contains(post.postId())) {
+      // 發文在載入後已被刪除
+      return;
+    }
+    double exponent = decayRate() * (now - baseMillis);
+    if (exponent > MAX_EXPONENT) {
+      rebase(now);
+      exponent = 0;
+    }
+    Entry existing = entries.get(post.postId());
+    double score = weight * Math.exp(exponent);
+    if (existing != null) {
+      ranking.remove(existing);
+      score += existing.score();
+    }
+    // 排行中的內容由更新事件維護，不被更新前載入的發文覆蓋
+    Entry updated = new Entry(existing != null ? existing.post() : post, score);
+    entries.put(post.postId(), updated);
+    ranking.add(updated);
+    if (entries.size() > capacity) {
+      entries.remove(ranking.pollFirst().post().postId());
+    }
+    dirty = true;
+  }
+
+  /**
+   * 將所有分數換算到新的基準時間，所有分數乘上相同比例，排名不變
+   */
+  private void rebase(long now) {
+    double factor = Math.exp(-decayRate() * (now - baseMillis));
+    List<Entry> rebased = new ArrayList<>(ranking.size());
+    for (Entry entry : ranking) {
+      rebased.add(new Entry(entry.post(), entry.score() * factor));
+    }
+    ranking.clear();
+    entries.clear();
+    for (Entry entry : rebased) {
+      entries.put(entry.post().postId(), entry);
+      ranking.add(entry);
+    }
+    baseMillis = now;
+  }
+
+  private double decayRate() {
+    return Math.log(2) / halfLife;
+  }
+
+  /**
+   * 將排行寫入快照檔，先寫入暫存檔再替換，避免寫到一半時重啟讀到不完整的快照
+   */
+  void saveSnapshot() throws IOException {
+    Snapshot snapshot;
+    synchronized (this) {
+      flushViews(System.currentTimeMillis());
+      if (!dirty) {
+        return;
+      }
+      snapshot = new Snapshot(baseMillis, new ArrayList<>(ranking));
+      dirty = false;
+    }
+    Path target = Paths.get(snapshotPath);
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      objectMapper.writeValue(temp.toFile(), snapshot);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      synchronized (this) {
+        dirty = true;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 從快照檔恢復排行，快照不存在或無法讀取時從空排行開始
+   */
+  synchronized void loadSnapshot() {
+    Path path = Paths.get(snapshotPath);
+    if (!Files.exists(path)) {
+      return;
+    }
+    try {
+      Snapshot snapshot = objectMapper.readValue(path.toFile(), Snapshot.class);
+      entries.clear();
+      ranking.clear();
+      baseMillis = snapshot.baseMillis();
+      for (Entry entry : snapshot.entries()) {
+        entries.put(entry.post().postId(), entry);
+        ranking.add(entry);
+      }
+      while (entries.size() > capacity) {
+        entries.remove(ranking.pollFirst().post().postId());
+      }
+      logger.info("已從快照恢復 {} 篇熱門發文", entries.size());
+    } catch (IOException e) {
+      logger.warn("無法讀取熱門發文快照 {}: {}", path, e.getMessage());
+    }
+  }
+
+  private void saveSnapshotQuietly() {
+    try {
+      saveSnapshot();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("寫入熱門發文快照失敗: {}", e.getMessage());
+    }
+  }
+
+  private static PostView toView(Post post) {
+    return new PostView(post.getPostId(), post.getUserId(), post.getContent(), post.getImage(), post.getCreatedAt());
+  }
+
+  /**
+   * 排行中的一篇發文
+   *
+   * @param post  發文內容
+   * @param score 相對於基準時間的分數
+   */
+  record Entry(PostView post, double score) {
+  }
+
+  /**
+   * 尚未併入排行的瀏覽
+   *
+   * @param post  發文內容
+   * @param count 瀏覽次數
+   */
+  private record PendingViews(PostView post, LongAdder count) {
+  }
+
+  /**
+   * 快照檔內容
+   *
+   * @param baseMillis 分數的基準時間
+   * @param entries    排行中的發文
+   */
+  record Snapshot(long baseMillis, List<Entry> entries) {
+  }
+}
@@ -6,7 +6,6 @@ import com.example.social_backend.util.JwtUtil;
 import com.example.social_backend.util.SanitizerUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -15,14 +14,15 @@ import java.util.Optional;
 public class UserService {
 
   private final UserRepository userRepository;
-  private final BCryptPasswordEncoder passwordEncoder;
+  private final PasswordHashingService passwordHashingService;
   private final JwtUtil jwtUtil;
   private final SanitizerUtil sanitizerUtil;
 
   @Autowired
-  public UserService(UserRepository userRepository, JwtUtil jwtUtil, SanitizerUtil sanitizerUtil) {
+  public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService, JwtUtil jwtUtil,
+      SanitizerUtil sanitizerUtil) {
     this.userRepository = userRepository;
-    this.passwordEncoder = new BCryptPasswordEncoder();
+    this.passwordHashingService = passwordHashingService;
     this.jwtUtil = jwtUtil;
     this.sanitizerUtil = sanitizerUtil;
   }
@@ -38,6 +38,7 @@ public class UserService {
    * @param biography   個人簡介
    * @return 註冊成功的使用者實體
    * @throws IllegalArgumentException 如果手機號碼已經被註冊或必要欄位為空
+   * @throws PasswordHashingRejectedException 密碼雜湊執行緒池已滿時拋出
    */
   public User registerUser(String phoneNumber, String userName, String email,
       String password, String coverImage, String biography) {
@@ -67,7 +68,7 @@ public class UserService {
     String sanitizedBiography = sanitizerUtil.sanitize(biography);
 
     // 加密密碼
-    String encryptedPassword = passwordEncoder.encode(password);
+    String encryptedPassword = passwordHashingService.encode(password);
 
     // 創建新使用者
     User newUser = new User(phoneNumber, sanitizedUserName, sanitizedEmail, encryptedPassword, sanitizedCoverImage,
@@ -84,6 +85,7 @@ public class UserService {
    * @param password    密碼
    * @return JWT令牌
    * @throws BadCredentialsException 如果手機號碼或密碼不正確
+   * @throws PasswordHashingRejectedException 密碼雜湊執行緒池已滿時拋出
    */
   public String loginUser(String phoneNumber, String password) {
     // 驗證輸入
@@ -96,10 +98,17 @@ public class UserService {
     User user = userOptional.orElseThrow(() -> new BadCredentialsException("手機號碼或密碼不正確"));
 
     // 驗證密碼 (允許明文密碼或加密密碼匹配)
-    if (!passwordEncoder.matches(password, user.getPassword()) && !password.equals(user.getPassword())) {
+    PasswordHashingService.PasswordCheck check = passwordHashingService.verify(password, user.getPassword());
+    if (!check.matched()) {
       throw new BadCredentialsException("手機號碼或密碼不正確");
     }
 
+    // 成本因子調整過或仍為明文密碼時，以目前設定重新雜湊
+    if (check.upgradedPassword() != null) {
+      user.setPassword(check.upgradedPassword());
+      userRepository.save(user);
+    }
+
     // 生成JWT令牌
     return jwtUtil.generateToken(user.getUserId());
   }
@@ -0,0 +1,200 @@
+package com.example.social_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 寫入批次處理器（group commit）
+ * 將短時間內到達的多筆寫入合併到同一個事務中提交，SQLite 每次提交都要取得寫鎖並同步磁碟，
+ * 合併後大量留言或發文同時寫入時只需要一次提交。
+ * 呼叫者會阻塞到所屬批次提交為止，並取得自己那筆寫入的結果（包含產生的ID）或例外。
+ */
+@Component
+public class WriteBatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(WriteBatcher.class);
+
+  private final TransactionTemplate transactionTemplate;
+
+  // 是否啟用批次處理，關閉時每筆寫入各自使用一個事務
+  @Value("${write-batch.enabled:true}")
+  private boolean enabled = true;
+
+  // 每個批次最多合併的寫入筆數
+  @Value("${write-batch.max-size:64}")
+  private int maxBatchSize = 64;
+
+  // 收到第一筆寫入後最多等待多久收集同一批次（毫秒），越長吞吐量越高但單筆延遲越大
+  @Value("${write-batch.max-wait-ms:2}")
+  private long maxWaitMillis = 2;
+
+  @Value("${write-batch.queue-capacity:10000}")
+  private int queueCapacity = 10000;
+
+  private BlockingQueue<PendingWrite<?>> queue;
+  private Thread worker;
+  private volatile boolean running;
+
+  @Autowired
+  public WriteBatcher(PlatformTransactionManager transactionManager) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void start() {
+    queue = new LinkedBlockingQueue<>(queueCapacity);
+    running = true;
+    worker = new Thread(this::processLoop, "write-batcher");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  /**
+   * 提交一筆寫入並等待其所屬批次提交
+   * 若呼叫者已在事務中，則直接在該事務中執行，保持原有的原子性與可見性。
+   * 批次失敗時寫入操作會重新執行一次，因此實體必須在操作內部建立。
+   *
+   * @param write 寫入操作（在批次事務中執行）
+   * @return 寫入操作的結果
+   */
+  public <T> T submit(Supplier<T> write) {
+    if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return transactionTemplate.execute(status -> write.get());
+    }
+
+    PendingWrite<T> pending = new PendingWrite<>(write);
+    try {
+      queue.put(pending);
+      return pending.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("等待寫入完成時被中斷", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private void processLoop() {
+    List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        collect(batch);
+      } catch (InterruptedException e) {
+        // 關閉時不再等待新的寫入，但仍處理已在佇列中的寫入
+        queue.drainTo(batch, maxBatchSize - batch.size());
+      }
+      if (!batch.isEmpty()) {
+        execute(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  /**
+   * 在等待時間內收集更多寫入，直到達到批次上限
+   */
+  private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    while (batch.size() < maxBatchSize) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || remaining <= 0) {
+        return;
+      }
+      PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  /**
+   * 在單一事務中執行整個批次
+   * 批次失敗時逐筆以獨立事務重試，讓每筆寫入各自得到成功或失敗的結果，不受同批次其他寫入影響
+   */
+  private void execute(List<PendingWrite<?>> batch) {
+    List<Object> results = new ArrayList<>(batch.size());
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        for (PendingWrite<?> pending : batch) {
+          results.add(pending.write.get());
+        }
+      });
+    } catch (RuntimeException | Error batchFailure) {
+      if (batch.size() == 1) {
+        batch.get(0).future.completeExceptionally(batchFailure);
+        return;
+      }
+      logger.debug("批次寫入失敗，逐筆重試: {}", batchFailure.getMessage());
+      for (PendingWrite<?> pending : batch) {
+        executeSingle(pending);
+      }
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).complete(results.get(i));
+    }
+  }
+
+  private void executeSingle(PendingWrite<?> pending) {
+    try {
+      pending.complete(transactionTemplate.execute(status -> pending.write.get()));
+    } catch (RuntimeException | Error e) {
+      pending.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * 佇列中等待執行的寫入
+   */
+  private static final class PendingWrite<T> {
+    private final Supplier<T> write;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private PendingWrite(Supplier<T> write) {
+      this.write = write;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(Object result) {
+      future.complete((T) result);
+    }
+  }
+}
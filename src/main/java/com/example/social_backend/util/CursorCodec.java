@@ -0,0 +1,60 @@
+package com.example.social_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 分頁游標編解碼工具，將 (CreatedAt, ID) 鍵集位置編碼為不透明字串
+ */
+public final class CursorCodec {
+
+  private static final char SEPARATOR = '|';
+
+  private CursorCodec() {
+  }
+
+  /**
+   * 鍵集位置
+   *
+   * @param createdAt 最後一筆項目的創建時間
+   * @param id        最後一筆項目的ID
+   */
+  public record Cursor(LocalDateTime createdAt, Long id) {
+  }
+
+  /**
+   * 編碼游標
+   *
+   * @param createdAt 最後一筆項目的創建時間
+   * @param id        最後一筆項目的ID
+   * @return 不透明的游標字串
+   */
+  public static String encode(LocalDateTime createdAt, Long id) {
+    String raw = createdAt.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解碼游標
+   *
+   * @param cursor 游標字串
+   * @return 鍵集位置
+   * @throws IllegalArgumentException 如果游標格式不正確
+   */
+  public static Cursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separatorIndex = raw.indexOf(SEPARATOR);
+      if (separatorIndex < 0) {
+        throw new IllegalArgumentException("無效的分頁游標");
+      }
+      LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separatorIndex));
+      Long id = Long.parseLong(raw.substring(separatorIndex + 1));
+      return new Cursor(createdAt, id);
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("無效的分頁游標");
+    }
+  }
+}
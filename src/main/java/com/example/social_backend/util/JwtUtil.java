@@ -1,44 +1,133 @@
 package com.example.social_backend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
 
   // 預設的JWT密鑰
   private static final String DEFAULT_SECRET = "ThisIsASecretKeyForJWTGenerationWithMinimum256BitsLength";
 
-  // 從application.properties中獲取JWT密鑰
-  @Value("${jwt.secret:#{null}}")
-  private String configSecret;
+  // 令牌中保存用戶角色的聲明名稱
+  private static final String ROLES_CLAIM = "roles";
 
-  // JWT令牌有效期（以毫秒為單位）- 預設24小時
-  @Value("${jwt.expiration:86400000}")
-  private long jwtExpiration;
+  // 未攜帶角色聲明的令牌所使用的預設角色
+  private static final List<String> DEFAULT_ROLES = List.of("ROLE_USER");
 
-  // 實例密鑰，每次應用程序重啟時會更新
-  private final String instanceSecret;
+  // JWT令牌有效期（以毫秒為單位）
+  private final long jwtExpiration;
+
+  // 簽名密鑰與解析器在建構時推導一次，解析器是執行緒安全的，因此整個應用共用同一個實例
+  private final SecretKey signingKey;
+  private final JwtParser jwtParser;
+
+  // 已驗證令牌快取，以令牌的SHA-256摘要為鍵，項目在令牌過期時自動失效
+  private final Cache<String, VerifiedToken> verifiedTokens;
 
   /**
-   * 構造函數，初始化實例密鑰
+   * 已通過簽名驗證的令牌資訊
+   *
+   * @param userId     用戶ID
+   * @param roles      用戶角色
+   * @param expiration 過期時間
    */
-  public JwtUtil() {
-    // 生成一個隨機的實例密鑰
-    this.instanceSecret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+  public record VerifiedToken(Long userId, List<String> roles, Date expiration) {
+
+    /**
+     * 檢查令牌是否已過期
+     *
+     * @return 如果已過期則返回true
+     */
+    public boolean isExpired() {
+      return expiration.before(new Date());
+    }
+  }
+
+  /**
+   * 構造函數，推導簽名密鑰並建立解析器與已驗證令牌快取
+   *
+   * @param configSecret                  配置的JWT密鑰，未配置時使用預設密鑰
+   * @param jwtExpiration                 JWT令牌有效期（毫秒），預設24小時
+   * @param verifiedTokenCacheMaximumSize 已驗證令牌快取的最大筆數
+   */
+  @Autowired
+  public JwtUtil(@Value("${jwt.secret:#{null}}") String configSecret,
+      @Value("${jwt.expiration:86400000}") long jwtExpiration,
+      @Value("${jwt.verified-token-cache.maximum-size:10000}") long verifiedTokenCacheMaximumSize) {
+    this.jwtExpiration = jwtExpiration;
+    this.signingKey = createSigningKey(configSecret);
+    this.jwtParser = Jwts.parser()
+        .verifyWith(signingKey)
+        .build();
+    this.verifiedTokens = Caffeine.newBuilder()
+        .maximumSize(verifiedTokenCacheMaximumSize)
+        .expireAfter(new TokenExpiry())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * 驗證JWT令牌的簽名與有效期，並返回令牌資訊
+   * 同一令牌在過期前只會進行一次簽名驗證，之後直接由快取返回
+   *
+   * @param token JWT令牌
+   * @return 已驗證的令牌資訊
+   * @throws JwtException 如果令牌無效或已過期
+   */
+  @Timed(value = "jwt.verify", description = "JWT令牌驗證（含快取命中）", histogram = true)
+  public VerifiedToken verifyToken(String token) {
+    String cacheKey = digest(token);
+
+    VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+    if (cached != null) {
+      if (cached.isExpired()) {
+        verifiedTokens.invalidate(cacheKey);
+        throw new JwtException("令牌已過期");
+      }
+      return cached;
+    }
+
+    Claims claims = extractAllClaims(token);
+    VerifiedToken verified = new VerifiedToken(Long.parseLong(claims.getSubject()), extractRoles(claims),
+        claims.getExpiration());
+    verifiedTokens.put(cacheKey, verified);
+    return verified;
+  }
+
+  /**
+   * 將已驗證令牌快取以 cache="jwt-verified-tokens" 標籤輸出到監控指標
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt-verified-tokens");
   }
 
   /**
@@ -48,8 +137,7 @@ public class JwtUtil {
    * @return 用戶ID
    */
   public Long extractUserId(String token) {
-    final Claims claims = extractAllClaims(token);
-    return Long.parseLong(claims.getSubject());
+    return verifyToken(token).userId();
   }
 
   /**
@@ -59,7 +147,7 @@ public class JwtUtil {
    * @return 過期時間
    */
   public Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+    return verifyToken(token).expiration();
   }
 
   /**
@@ -75,27 +163,27 @@ public class JwtUtil {
   }
 
   /**
-   * 從JWT令牌中提取所有聲明
+   * 從聲明中提取用戶角色
    *
-   * @param token JWT令牌
-   * @return 所有聲明
+   * @param claims 令牌聲明
+   * @return 用戶角色列表
    */
-  private Claims extractAllClaims(String token) {
-    JwtParser jwtParser = Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build();
-    return jwtParser.parseSignedClaims(token).getPayload();
+  private List<String> extractRoles(Claims claims) {
+    Object roles = claims.get(ROLES_CLAIM);
+    if (!(roles instanceof List<?> roleList) || roleList.isEmpty()) {
+      return DEFAULT_ROLES;
+    }
+    return roleList.stream().map(String::valueOf).toList();
   }
 
   /**
-   * 檢查JWT令牌是否已過期
+   * 從JWT令牌中提取所有聲明
    *
    * @param token JWT令牌
-   * @return 如果已過期則返回true
+   * @return 所有聲明
    */
-  private Boolean isTokenExpired(String token) {
-    final Date expiration = extractExpiration(token);
-    return expiration.before(new Date());
+  private Claims extractAllClaims(String token) {
+    return jwtParser.parseSignedClaims(token).getPayload();
   }
 
   /**
@@ -104,8 +192,10 @@ public class JwtUtil {
    * @param userId 用戶ID
    * @return JWT令牌
    */
+  @Timed(value = "jwt.generate", description = "JWT令牌簽發", histogram = true)
   public String generateToken(Long userId) {
     Map<String, Object> claims = new HashMap<>();
+    claims.put(ROLES_CLAIM, DEFAULT_ROLES);
     return createToken(claims, String.valueOf(userId));
   }
 
@@ -122,7 +212,7 @@ public class JwtUtil {
         .subject(subject)
         .issuedAt(new Date(System.currentTimeMillis()))
         .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-        .signWith(getSigningKey())
+        .signWith(signingKey)
         .compact();
   }
 
@@ -134,27 +224,68 @@ public class JwtUtil {
    */
   public Boolean validateToken(String token) {
     try {
-      // 只要令牌可以被解析且未過期，就認為它是有效的
-      return !isTokenExpired(token);
+      // 只要令牌可以被解析且未過期，就認為它是有效的（過期的令牌會在驗證時拋出異常）
+      verifyToken(token);
+      return true;
     } catch (Exception e) {
       return false;
     }
   }
 
   /**
-   * 獲取用於簽名JWT的密鑰
+   * 推導用於簽名JWT的密鑰
    *
+   * @param configSecret 配置的JWT密鑰
    * @return 簽名密鑰
    */
-  private SecretKey getSigningKey() {
-    // 結合配置密鑰和實例密鑰，這樣每次應用重啟時都會產生不同的密鑰
+  private static SecretKey createSigningKey(String configSecret) {
+    // 結合配置密鑰和隨機的實例密鑰，這樣每次應用重啟時都會產生不同的密鑰
     String baseSecret = (configSecret != null && !configSecret.isEmpty()) ? configSecret : DEFAULT_SECRET;
+    String instanceSecret = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
     String combinedSecret = baseSecret + instanceSecret;
     // 使用標準Base64編碼來處理可能的非URL安全字符
     byte[] keyBytes = Base64.getEncoder().encode((combinedSecret).getBytes());
     return Keys.hmacShaKeyFor(keyBytes);
   }
 
+  /**
+   * 計算令牌的SHA-256摘要，避免在記憶體中以明文保存令牌
+   *
+   * @param token JWT令牌
+   * @return 摘要字串
+   */
+  private static String digest(String token) {
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 不可用", e);
+    }
+  }
+
+  /**
+   * 讓快取項目在令牌過期時失效
+   */
+  private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+    @Override
+    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+      long remainingMillis = value.expiration().getTime() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
   /**
    * 驗證JWT令牌並返回用戶ID
    *
@@ -163,9 +294,10 @@ public class JwtUtil {
    * @throws RuntimeException 如果令牌無效或已過期
    */
   public Long validateTokenAndGetUserId(String token) {
-    if (!validateToken(token)) {
+    try {
+      return verifyToken(token).userId();
+    } catch (Exception e) {
       throw new RuntimeException("無效或已過期的令牌");
     }
-    return extractUserId(token);
   }
 }
\ No newline at end of file
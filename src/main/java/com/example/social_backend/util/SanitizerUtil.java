@@ -1,16 +1,25 @@
 package com.example.social_backend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.owasp.html.HtmlPolicyBuilder;
 import org.owasp.html.PolicyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * HTML內容淨化工具類，用於防範XSS攻擊
+ * 淨化結果快取以 cache="sanitizer" 標籤輸出到監控指標（cache.gets、cache.size 等）
  */
 @Component
-public class SanitizerUtil {
+public class SanitizerUtil implements MeterBinder {
 
-  private static final PolicyFactory POLICY = new HtmlPolicyBuilder()
+  static final PolicyFactory POLICY = new HtmlPolicyBuilder()
       .allowCommonBlockElements() // 允許常見區塊元素如 <p>, <div>, <h1>-<h6>
       .allowCommonInlineFormattingElements() // 允許內聯格式元素如 <b>, <i>, <em>, <strong>
       .allowElements("span", "a") // 允許額外的元素
@@ -19,17 +28,72 @@ public class SanitizerUtil {
       .requireRelNofollowOnLinks() // 在連結上加入 rel="nofollow"
       .toFactory();
 
+  // 超過此長度的輸入不放入快取，避免長文佔用過多記憶體
+  private final int cacheMaxInputLength;
+
+  // 以輸入內容為鍵的淨化結果快取
+  private final Cache<String, String> sanitizedCache;
+
+  /**
+   * 構造函數，建立淨化結果快取
+   *
+   * @param cacheMaximumSize    淨化結果快取的最大筆數
+   * @param cacheMaxInputLength 放入快取的輸入最大長度
+   */
+  @Autowired
+  public SanitizerUtil(@Value("${sanitizer.cache.maximum-size:10000}") long cacheMaximumSize,
+      @Value("${sanitizer.cache.max-input-length:1000}") int cacheMaxInputLength) {
+    this.cacheMaxInputLength = cacheMaxInputLength;
+    this.sanitizedCache = Caffeine.newBuilder()
+        .maximumSize(cacheMaximumSize)
+        .recordStats()
+        .build();
+  }
+
   /**
    * 淨化HTML內容，移除危險標籤和屬性
+   * 純文本輸入直接返回；相同的輸入（例如大量重複的短留言）從快取取得結果，不重複解析HTML。
    *
    * @param input 輸入的可能包含HTML的內容
    * @return 淨化後的安全內容
    */
+  @Timed(value = "sanitizer.sanitize", description = "HTML淨化（含純文字及快取命中）", histogram = true)
   public String sanitize(String input) {
     if (input == null) {
       return null;
     }
-    return POLICY.sanitize(input);
+    if (isPlainText(input)) {
+      return input;
+    }
+    if (input.length() > cacheMaxInputLength) {
+      return POLICY.sanitize(input);
+    }
+    return sanitizedCache.get(input, POLICY::sanitize);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, sanitizedCache, "sanitizer");
+  }
+
+  /**
+   * 判斷輸入經淨化後是否保持不變，是則不需要解析HTML
+   * 淨化器除了處理標籤外，還會把 " & ' + < = > @ ` 、控制字元、BMP以外的字元（如表情符號）、
+   * U+1FEF 及全形符號區（U+FE60 以後）轉為字元實體，並會在部分 { 後插入註解（防範模板注入），
+   * 因此只有完全不含這些字元的輸入才能略過淨化。
+   */
+  static boolean isPlainText(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (c < 0x80) {
+        if (c < 0x20 ? (c != '\t' && c != '\n' && c != '\r') : "\"&'+<=>@`{".indexOf(c) >= 0) {
+          return false;
+        }
+      } else if (Character.isSurrogate(c) || c == 0x1FEF || c >= 0xFE60) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -42,7 +106,28 @@ public class SanitizerUtil {
     if (input == null) {
       return null;
     }
-    return input.replaceAll("<[^>]*>", "");
+    // 沒有標籤時直接返回原字串，不產生任何物件
+    int tagStart = input.indexOf('<');
+    if (tagStart < 0) {
+      return input;
+    }
+
+    // 單次掃描移除 <...>，結果與正則 <[^>]*> 相同：
+    // 每個 < 與其後第一個 > 之間的內容被移除；若之後已沒有 >，剩下的內容原樣保留。
+    // 尋找 > 的位置只會向後移動，因此即使有大量不成對的 < 也是線性時間。
+    StringBuilder result = new StringBuilder(input.length());
+    int copyFrom = 0;
+    while (tagStart >= 0) {
+      int tagEnd = input.indexOf('>', tagStart + 1);
+      if (tagEnd < 0) {
+        break;
+      }
+      result.append(input, copyFrom, tagStart);
+      copyFrom = tagEnd + 1;
+      tagStart = input.indexOf('<', copyFrom);
+    }
+    result.append(input, copyFrom, input.length());
+    return result.toString();
   }
 
   /**
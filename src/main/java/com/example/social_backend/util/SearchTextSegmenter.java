@@ -0,0 +1,103 @@
+package com.example.social_backend.util;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 全文檢索的文字切分工具
+ * FTS5 的 unicode61 分詞器以空白及標點切分詞語，連續的中日文字會被視為同一個詞而無法查詢其中的詞語；
+ * 寫入索引前將每個中日文字切分為單獨的詞，查詢時以片語比對相鄰的字，因此可查詢任意長度的中文詞語。
+ * 索引與查詢必須使用相同的切分方式。
+ */
+public final class SearchTextSegmenter {
+
+  // 查詢字串的最大長度
+  public static final int MAX_QUERY_LENGTH = 100;
+
+  // 查詢最多的詞數
+  public static final int MAX_QUERY_TERMS = 10;
+
+  private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+
+  // 與 unicode61 分詞器的詞語字元大致相同：字母、數字及組合符號以外的字元都是分隔符
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}\\p{M}]+");
+
+  private SearchTextSegmenter() {
+  }
+
+  /**
+   * 將內容轉換為寫入索引的文字：移除淨化後保留的HTML標籤、解碼字元參照，並切分中日文字
+   *
+   * @param content 發文或留言內容
+   * @return 寫入索引的文字
+   */
+  public static String segment(String content) {
+    if (content == null) {
+      return "";
+    }
+    // 淨化器會把 @ + = " ` 等字元輸出為數字字元參照（例如 &#64;），須完整解碼，否則參照中的數字會被當成詞語
+    String text = HtmlUtils.htmlUnescape(HTML_TAG.matcher(content).replaceAll(" "));
+    StringBuilder builder = new StringBuilder(text.length() * 2);
+    text.codePoints().forEach(codePoint -> {
+      if (isCjk(codePoint)) {
+        builder.append(' ').appendCodePoint(codePoint).append(' ');
+      } else {
+        builder.appendCodePoint(codePoint);
+      }
+    });
+    return builder.toString();
+  }
+
+  /**
+   * 將使用者輸入的查詢轉換為 FTS5 MATCH 表達式
+   * 以空白分隔的每個詞都必須出現（AND），每個詞轉為帶引號的片語，使用者輸入中的 FTS5 語法不會被解讀；
+   * 以 * 結尾的詞為前綴查詢，例如 "spri*" 可找到 "spring"。
+   *
+   * @param query 使用者輸入的查詢
+   * @return MATCH 表達式
+   * @throws IllegalArgumentException 如果查詢為空、過長或詞數過多
+   */
+  public static String toMatchQuery(String query) {
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("搜尋關鍵字不能為空");
+    }
+    if (query.length() > MAX_QUERY_LENGTH) {
+      throw new IllegalArgumentException("搜尋關鍵字不能超過" + MAX_QUERY_LENGTH + "字");
+    }
+
+    List<String> phrases = new ArrayList<>();
+    for (String term : query.trim().split("\\s+")) {
+      boolean prefix = term.endsWith("*");
+      List<String> tokens = new ArrayList<>();
+      for (String token : SEPARATORS.split(segment(prefix ? term.substring(0, term.length() - 1) : term))) {
+        if (!token.isEmpty()) {
+          tokens.add(token);
+        }
+      }
+      if (tokens.isEmpty()) {
+        continue;
+      }
+      // 詞語只含字母、數字及組合符號，不需要跳脫引號
+      phrases.add("\"" + String.join(" ", tokens) + "\"" + (prefix ? "*" : ""));
+    }
+
+    if (phrases.isEmpty()) {
+      throw new IllegalArgumentException("搜尋關鍵字不能為空");
+    }
+    if (phrases.size() > MAX_QUERY_TERMS) {
+      throw new IllegalArgumentException("搜尋關鍵字不能超過" + MAX_QUERY_TERMS + "個詞");
+    }
+    return String.join(" ", phrases);
+  }
+
+  private static boolean isCjk(int codePoint) {
+    Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+    return script == Character.UnicodeScript.HAN
+        || script == Character.UnicodeScript.HIRAGANA
+        || script == Character.UnicodeScript.KATAKANA
+        || script == Character.UnicodeScript.BOPOMOFO;
+  }
+}
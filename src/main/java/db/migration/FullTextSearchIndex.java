@@ -0,0 +1,52 @@
+package db.migration;
+
+import com.example.social_backend.util.SearchTextSegmenter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 全文檢索索引（post_fts、comment_fts）的完整重建，供 Java 遷移使用
+ * 中日文字須以 {@link SearchTextSegmenter} 切分後才能寫入索引，無法以 SQL 遷移完成。
+ * 遷移在應用程式開始接受請求前、於同一事務中執行：中途失敗時整個重建回滾，下次啟動重新執行，
+ * 遷移紀錄即為完成標記，不依賴「索引是否為空」判斷。
+ */
+public final class FullTextSearchIndex {
+
+  // 每次讀取的筆數
+  private static final int BATCH_SIZE = 1000;
+
+  private FullTextSearchIndex() {
+  }
+
+  /**
+   * 清空索引後以現有的發文及留言重新寫入
+   *
+   * @param jdbcTemplate 使用遷移連線的 JdbcTemplate
+   * @return 寫入索引的發文及留言總數
+   */
+  public static long rebuild(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update("INSERT INTO post_fts (post_fts) VALUES ('delete-all')");
+    jdbcTemplate.update("INSERT INTO comment_fts (comment_fts) VALUES ('delete-all')");
+    return reindex(jdbcTemplate, "SELECT postid, content FROM post WHERE postid > ? ORDER BY postid LIMIT ?",
+        "INSERT INTO post_fts (rowid, content) VALUES (?, ?)")
+        + reindex(jdbcTemplate, "SELECT c.commentid, c.content FROM comment c JOIN post p ON p.postid = c.postid "
+            + "WHERE c.commentid > ? ORDER BY c.commentid LIMIT ?",
+            "INSERT INTO comment_fts (rowid, content) VALUES (?, ?)");
+  }
+
+  private static long reindex(JdbcTemplate jdbcTemplate, String selectSql, String indexSql) {
+    long indexed = 0;
+    long lastId = 0;
+    while (true) {
+      List<Object[]> batch = jdbcTemplate.query(selectSql, (rs, rowNum) -> new Object[] {
+          rs.getLong(1), SearchTextSegmenter.segment(rs.getString(2)) }, lastId, BATCH_SIZE);
+      jdbcTemplate.batchUpdate(indexSql, batch);
+      indexed += batch.size();
+      if (batch.size() < BATCH_SIZE) {
+        return indexed;
+      }
+      lastId = (Long) batch.get(batch.size() - 1)[0];
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * 以現有的發文及留言建立全文檢索索引（V5 建立的索引資料表原本在啟動後才由應用程式回填）
+ */
+public class V7__rebuild_full_text_search_index extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) {
+    FullTextSearchIndex.rebuild(new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true)));
+  }
+}
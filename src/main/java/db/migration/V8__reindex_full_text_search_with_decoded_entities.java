@@ -0,0 +1,17 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * 以解碼字元參照後的切分方式重建全文檢索索引（舊索引含有 &#64; 等參照中的數字詞語）
+ */
+public class V8__reindex_full_text_search_with_decoded_entities extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) {
+    FullTextSearchIndex.rebuild(new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true)));
+  }
+}
@@ -0,0 +1,31 @@
+-- 基準資料表結構（與原先由 Hibernate ddl-auto=update 建立的結構一致）
+-- 已存在資料表的資料庫會以此版本作為基準，不會重新執行
+
+CREATE TABLE IF NOT EXISTS user (
+    userid integer,
+    biography varchar(255),
+    cover_image varchar(255),
+    email varchar(255),
+    password varchar(255) not null,
+    phone_number varchar(12) unique,
+    user_name varchar(255) not null,
+    primary key (userid)
+);
+
+CREATE TABLE IF NOT EXISTS post (
+    postid integer,
+    content varchar(500) not null,
+    created_at timestamp not null,
+    image varchar(255),
+    userid bigint not null,
+    primary key (postid)
+);
+
+CREATE TABLE IF NOT EXISTS comment (
+    commentid integer,
+    content varchar(500) not null,
+    created_at timestamp not null,
+    postid bigint not null,
+    userid bigint not null,
+    primary key (commentid)
+);
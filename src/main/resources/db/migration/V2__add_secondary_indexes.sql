@@ -0,0 +1,13 @@
+-- 發文與留言查詢使用的複合索引，避免全表掃描後再排序
+
+-- 用戶發文列表：WHERE userid = ? ORDER BY created_at DESC
+CREATE INDEX IF NOT EXISTS idx_post_userid_created_at ON post (userid, created_at);
+
+-- 全部發文與動態牆：ORDER BY created_at DESC, postid DESC
+CREATE INDEX IF NOT EXISTS idx_post_created_at_postid ON post (created_at, postid);
+
+-- 發文留言列表與留言預覽：WHERE postid = ? ORDER BY created_at
+CREATE INDEX IF NOT EXISTS idx_comment_postid_created_at ON comment (postid, created_at);
+
+-- 用戶留言列表：WHERE userid = ? ORDER BY created_at DESC
+CREATE INDEX IF NOT EXISTS idx_comment_userid_created_at ON comment (userid, created_at);
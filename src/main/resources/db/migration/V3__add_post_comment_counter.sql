@@ -0,0 +1,10 @@
+-- 發文的留言數量與最後留言時間（反正規化），由留言寫入在同一事務中維護，
+-- 動態牆及單篇發文不需要再統計留言；偏差由 CommentCountReconciler 定期修復
+
+ALTER TABLE post ADD COLUMN comment_count integer not null default 0;
+ALTER TABLE post ADD COLUMN last_comment_at timestamp;
+
+-- 以現有留言回填
+UPDATE post SET
+    comment_count = (SELECT COUNT(*) FROM comment c WHERE c.postid = post.postid),
+    last_comment_at = (SELECT MAX(c.created_at) FROM comment c WHERE c.postid = post.postid);
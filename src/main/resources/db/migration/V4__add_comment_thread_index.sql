@@ -0,0 +1,5 @@
+-- 留言串鍵集分頁：WHERE postid = ? AND (created_at, commentid) > (?, ?) ORDER BY created_at, commentid
+-- 取代 (postid, created_at) 索引，原有以 postid 篩選、created_at 排序的查詢同樣使用此索引
+CREATE INDEX IF NOT EXISTS idx_comment_postid_created_at_commentid ON comment (postid, created_at, commentid);
+
+DROP INDEX IF EXISTS idx_comment_postid_created_at;
@@ -0,0 +1,10 @@
+-- 發文與留言的全文檢索索引（FTS5）
+-- 不保存內容（content=''），rowid 即發文ID／留言ID，查詢時與原資料表聯結取得內容；
+-- 寫入由應用程式在發文及留言的寫入事務中維護（中日文字須先以 SearchTextSegmenter 切分，無法以觸發器完成），
+-- 現有資料由 SearchIndexInitializer 在啟動時發現索引為空時重建
+
+CREATE VIRTUAL TABLE IF NOT EXISTS post_fts USING fts5(
+    content, content = '', contentless_delete = 1, tokenize = 'unicode61 remove_diacritics 2');
+
+CREATE VIRTUAL TABLE IF NOT EXISTS comment_fts USING fts5(
+    content, content = '', contentless_delete = 1, tokenize = 'unicode61 remove_diacritics 2');
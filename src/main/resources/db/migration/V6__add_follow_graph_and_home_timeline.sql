@@ -0,0 +1,27 @@
+-- 追蹤關係與首頁時間軸
+
+-- 追蹤關係：以追蹤者查詢追蹤對象使用主鍵，以被追蹤者查詢粉絲（發文擴散）使用次要索引
+CREATE TABLE IF NOT EXISTS follow (
+    follower_id bigint not null,
+    followee_id bigint not null,
+    created_at timestamp not null,
+    primary key (follower_id, followee_id)
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS idx_follow_followee_follower ON follow (followee_id, follower_id);
+
+-- 用戶的粉絲數量（反正規化），追蹤及取消追蹤時在同一事務中維護，用於判斷是否改為讀取時合併
+ALTER TABLE user ADD COLUMN follower_count integer not null default 0;
+
+-- 首頁時間軸：發文建立後寫入作者及每個粉絲的時間軸（寫入時擴散），
+-- 讀取時以 (userid, created_at, postid) 主鍵做單一範圍掃描
+CREATE TABLE IF NOT EXISTS home_timeline (
+    userid bigint not null,
+    created_at timestamp not null,
+    postid bigint not null,
+    author_id bigint not null,
+    primary key (userid, created_at, postid)
+) WITHOUT ROWID;
+
+-- 刪除發文時移除所有時間軸中的項目
+CREATE INDEX IF NOT EXISTS idx_home_timeline_postid ON home_timeline (postid);
@@ -0,0 +1,79 @@
+package com.example.social_backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密碼雜湊演算法的 JMH 基準測試
+ * 單執行緒量測，結果即每個CPU核心每秒可處理的登入驗證次數，
+ * 用來依登入延遲目標與CPU預算選擇 password.* 的成本設定。
+ * 執行方式：mvn test-compile 後以測試類路徑執行本類的 main 方法，
+ * 可用 JMH 的 -p setting=... 參數只量測部分設定。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+  /**
+   * 演算法與成本設定：
+   * bcrypt-N - BCrypt 成本因子 N（password.bcrypt.strength）
+   * argon2-M-T - Argon2id 記憶體 M KiB、迭代 T 次（password.argon2.memory-kib / iterations）
+   * pbkdf2-N - PBKDF2-HMAC-SHA256 迭代 N 次（password.pbkdf2.iterations）
+   */
+  @Param({ "bcrypt-10", "bcrypt-11", "bcrypt-12",
+      "argon2-19456-2", "argon2-65536-3",
+      "pbkdf2-310000", "pbkdf2-600000" })
+  public String setting;
+
+  private PasswordEncoder passwordEncoder;
+  private String encodedPassword;
+
+  @Setup
+  public void setUp() {
+    String[] parts = setting.split("-");
+    passwordEncoder = switch (parts[0]) {
+      case "bcrypt" -> new BCryptPasswordEncoder(Integer.parseInt(parts[1]));
+      case "argon2" -> new Argon2PasswordEncoder(16, 32, 1, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+      case "pbkdf2" -> new Pbkdf2PasswordEncoder("", 16, Integer.parseInt(parts[1]),
+          Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+      default -> throw new IllegalArgumentException(setting);
+    };
+    encodedPassword = passwordEncoder.encode("password123");
+  }
+
+  /**
+   * 登入時的驗證（最常見的操作）
+   */
+  @Benchmark
+  public boolean matches() {
+    return passwordEncoder.matches("password123", encodedPassword);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PasswordEncoderBenchmark.class.getSimpleName()).build()).run();
+  }
+}
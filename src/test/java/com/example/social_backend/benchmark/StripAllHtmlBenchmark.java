@@ -0,0 +1,69 @@
+package com.example.social_backend.benchmark;
+
+import com.example.social_backend.util.SanitizerUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stripAllHtml 的 JMH 基準測試：單次掃描實作與原本的正則實作比較
+ * 執行方式：mvn test-compile 後以測試類路徑執行本類的 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StripAllHtmlBenchmark {
+
+  /**
+   * 輸入類型：
+   * plain - 註冊時常見的純文本用戶名
+   * tagged - 含少量標籤的輸入
+   * unbalanced - 大量不成對的 <（正則實作的最壞情況）
+   */
+  @Param({ "plain", "tagged", "unbalanced" })
+  public String inputType;
+
+  private SanitizerUtil sanitizerUtil;
+  private String input;
+
+  @Setup
+  public void setUp() {
+    sanitizerUtil = new SanitizerUtil(10000, 1000);
+    input = switch (inputType) {
+      case "plain" -> "王小明 test.user@example.com";
+      case "tagged" -> "<b>王小明</b> <script>alert(1)</script>test.user@example.com";
+      case "unbalanced" -> "<".repeat(5000) + "x";
+      default -> throw new IllegalArgumentException(inputType);
+    };
+  }
+
+  @Benchmark
+  public String scanner() {
+    return sanitizerUtil.stripAllHtml(input);
+  }
+
+  @Benchmark
+  public String regex() {
+    return input.replaceAll("<[^>]*>", "");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(StripAllHtmlBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.social_backend.config;
+
+import com.example.social_backend.service.PasswordHashingService;
+import com.example.social_backend.util.JwtUtil;
+import com.example.social_backend.util.SanitizerUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private JwtUtil jwtUtil;
+
+  @Autowired
+  private SanitizerUtil sanitizerUtil;
+
+  @Autowired
+  private PasswordHashingService passwordHashingService;
+
+  private long count(String name, String... tags) {
+    Timer timer = meterRegistry.find(name).tags(tags).timer();
+    assertNotNull(timer, "缺少計時器 " + name);
+    return timer.count();
+  }
+
+  @Test
+  void authenticatedRequest_recordsRequestAndTokenTimers() throws Exception {
+    // 執行
+    mockMvc.perform(get("/api/timeline")
+        .header("Authorization", "Bearer " + jwtUtil.generateToken(1L)))
+        .andExpect(status().isOk());
+
+    // 驗證 - 請求依路由模板計時，令牌驗證經由代理計時
+    assertTrue(count("http.server.requests", "uri", "/api/timeline") >= 1);
+    assertTrue(count("jwt.verify") >= 1);
+    assertTrue(count("jwt.generate") >= 1);
+  }
+
+  @Test
+  void hotPaths_recordTimers() {
+    // 執行
+    sanitizerUtil.sanitize("<b>粗體</b>");
+    passwordHashingService.encode("password123");
+
+    // 驗證
+    assertTrue(count("sanitizer.sanitize") >= 1);
+    assertTrue(count("password.hashing", "operation", "encode") >= 1);
+  }
+
+  @Test
+  void connectionPoolsAndHibernate_exposeGauges() {
+    // 驗證 - 讀寫連線池各自有一組指標
+    assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "sqlite-write").gauge());
+    assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "sqlite-read").gauge());
+    assertNotNull(meterRegistry.find("hibernate.sessions.open").meter());
+  }
+}
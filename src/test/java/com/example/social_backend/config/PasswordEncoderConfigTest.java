@@ -0,0 +1,98 @@
+package com.example.social_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderConfigTest {
+
+  private PasswordEncoder passwordEncoder(String algorithm) {
+    return passwordEncoder(algorithm, 1000);
+  }
+
+  private PasswordEncoder passwordEncoder(String algorithm, int pbkdf2Iterations) {
+    PasswordEncoderConfig config = new PasswordEncoderConfig();
+    ReflectionTestUtils.setField(config, "algorithm", algorithm);
+    ReflectionTestUtils.setField(config, "bcryptStrength", 4);
+    ReflectionTestUtils.setField(config, "argon2MemoryKib", 1024);
+    ReflectionTestUtils.setField(config, "pbkdf2Iterations", pbkdf2Iterations);
+    return config.passwordEncoder();
+  }
+
+  @Test
+  void passwordEncoder_eachAlgorithm_encodesWithPrefixAndMatches() {
+    for (String algorithm : new String[] { "bcrypt", "argon2", "pbkdf2" }) {
+      // 準備
+      PasswordEncoder passwordEncoder = passwordEncoder(algorithm);
+
+      // 執行
+      String encoded = passwordEncoder.encode("password123");
+
+      // 驗證
+      assertTrue(encoded.startsWith("{" + algorithm + "}"), encoded);
+      assertTrue(passwordEncoder.matches("password123", encoded));
+      assertFalse(passwordEncoder.matches("wrong", encoded));
+      assertFalse(passwordEncoder.upgradeEncoding(encoded));
+    }
+  }
+
+  @Test
+  void passwordEncoder_switchAlgorithm_oldHashesStillMatchAndNeedUpgrade() {
+    // 準備
+    String argon2Hash = passwordEncoder("argon2").encode("password123");
+    PasswordEncoder passwordEncoder = passwordEncoder("bcrypt");
+
+    // 執行與驗證
+    assertTrue(passwordEncoder.matches("password123", argon2Hash));
+    assertTrue(passwordEncoder.upgradeEncoding(argon2Hash));
+  }
+
+  @Test
+  void passwordEncoder_changePbkdf2Iterations_oldHashesStillMatchAndNeedUpgrade() {
+    // 準備
+    String oldHash = passwordEncoder("pbkdf2", 1000).encode("password123");
+    PasswordEncoder passwordEncoder = passwordEncoder("pbkdf2", 2000);
+
+    // 執行
+    String newHash = passwordEncoder.encode("password123");
+
+    // 驗證
+    assertTrue(oldHash.startsWith("{pbkdf2}1000$"), oldHash);
+    assertTrue(passwordEncoder.matches("password123", oldHash));
+    assertFalse(passwordEncoder.matches("wrong", oldHash));
+    assertTrue(passwordEncoder.upgradeEncoding(oldHash));
+    assertTrue(newHash.startsWith("{pbkdf2}2000$"), newHash);
+    assertFalse(passwordEncoder.upgradeEncoding(newHash));
+  }
+
+  @Test
+  void passwordEncoder_untaggedPbkdf2Hash_matchesWithLegacyIterationsAndNeedsUpgrade() {
+    // 準備 - 記錄迭代次數之前儲存的雜湊
+    String legacyHash = "{pbkdf2}" + new Pbkdf2PasswordEncoder("", 16,
+        PasswordEncoderConfig.IterationTaggedPbkdf2PasswordEncoder.LEGACY_ITERATIONS,
+        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256).encode("password123");
+    PasswordEncoder passwordEncoder = passwordEncoder("pbkdf2");
+
+    // 執行與驗證
+    assertTrue(passwordEncoder.matches("password123", legacyHash));
+    assertTrue(passwordEncoder.upgradeEncoding(legacyHash));
+  }
+
+  @Test
+  void passwordEncoder_unprefixedBcryptHash_matches() {
+    // 準備 - 加入前綴之前儲存的雜湊
+    String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+
+    // 執行與驗證
+    assertTrue(passwordEncoder("bcrypt").matches("password123", legacyHash));
+  }
+
+  @Test
+  void passwordEncoder_unknownAlgorithm_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> passwordEncoder("md5"));
+  }
+}
@@ -0,0 +1,114 @@
+package com.example.social_backend.config;
+
+import com.example.social_backend.config.QueryPlanVerifier.PlannedQuery;
+import com.example.social_backend.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class QueryPlanVerifierTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Autowired
+  private QueryPlanVerifier queryPlanVerifier;
+
+  @Autowired
+  private PostRepository postRepository;
+
+  private SingleConnectionDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("plan.db"), true);
+    // 資料表及全文檢索虛擬表，不含次要索引（追蹤及時間軸資料表連同其索引一起建立）
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+        new ClassPathResource("db/migration/V3__add_post_comment_counter.sql"),
+        new ClassPathResource("db/migration/V5__add_full_text_search.sql"),
+        new ClassPathResource("db/migration/V6__add_follow_graph_and_home_timeline.sql")).execute(dataSource);
+  }
+
+  private void migrateIndexes() {
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V2__add_secondary_indexes.sql"),
+        new ClassPathResource("db/migration/V4__add_comment_thread_index.sql")).execute(dataSource);
+  }
+
+  /**
+   * 以應用程式擷取的查詢檢查測試資料庫的執行計劃
+   */
+  private void verifyAgainstTestDatabase() {
+    new QueryPlanVerifier(new JdbcTemplate(dataSource), new DefaultListableBeanFactory())
+        .check(queryPlanVerifier.plannedQueries());
+  }
+
+  @Test
+  void repositoryQueries_captureSqlGeneratedByHibernate() {
+    // 執行
+    Map<String, String> queries = queryPlanVerifier.repositoryQueries().stream()
+        .collect(Collectors.toMap(PlannedQuery::name, PlannedQuery::sql));
+
+    // 驗證 - 衍生查詢、投影查詢及原生查詢都有擷取，修改資料的查詢不檢查
+    assertTrue(queries.get("PostRepository.findByUserIdOrderByCreatedAtDesc").contains("order by"),
+        queries.toString());
+    assertTrue(queries.containsKey("CommentRepository.findViewsByUserIdOrderByCreatedAtDesc"));
+    assertEquals(PostRepository.FEED_FIRST_PAGE_SQL.replace(":limit", "?"),
+        queries.get("PostRepository.findFeedFirstPage"));
+    assertTrue(queries.containsKey("UserRepository.findByPhoneNumber"));
+    assertFalse(queries.containsKey("PostRepository.incrementCommentCount"));
+    // 擷取結束後查詢照常執行
+    assertDoesNotThrow(() -> postRepository.findFeedFirstPage(1));
+  }
+
+  @Test
+  void verify_withMigratedIndexes_passes() {
+    migrateIndexes();
+
+    assertDoesNotThrow(this::verifyAgainstTestDatabase);
+  }
+
+  @Test
+  void verify_missingIndexes_failsFast() {
+    IllegalStateException exception = assertThrows(IllegalStateException.class, this::verifyAgainstTestDatabase);
+
+    assertTrue(exception.getMessage().contains("PostRepository.findByUserIdOrderByCreatedAtDesc"));
+    assertTrue(exception.getMessage().contains("CommentRepository.findByPostIdOrderByCreatedAtAsc"));
+    assertTrue(exception.getMessage().contains("PostExportService.exportFirstPage"));
+  }
+
+  @Test
+  void verify_droppedIndex_reportsRegressedQuery() {
+    migrateIndexes();
+    new JdbcTemplate(dataSource).execute("DROP INDEX idx_comment_userid_created_at");
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class, this::verifyAgainstTestDatabase);
+
+    assertTrue(exception.getMessage().contains("CommentRepository.findByUserIdOrderByCreatedAtDesc"));
+    assertTrue(exception.getMessage().contains("CommentRepository.findViewsByUserIdOrderByCreatedAtDesc"));
+    assertFalse(exception.getMessage().contains("PostRepository"));
+  }
+
+  @Test
+  void capture_withoutSql_fails() {
+    QueryPlanVerifier.CapturingStatementInspector inspector = new QueryPlanVerifier.CapturingStatementInspector();
+
+    assertThrows(IllegalStateException.class, () -> inspector.capture("noop", () -> { }));
+    assertEquals("SELECT 1", inspector.inspect("SELECT 1"));
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.social_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteDataSourceConfigTest {
+
+  @TempDir
+  Path tempDir;
+
+  private HikariDataSource writeDataSource;
+  private HikariDataSource readDataSource;
+  private DataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = createDataSource(true);
+  }
+
+  private DataSource createDataSource(boolean virtualThreadsEnabled) {
+    SqliteDataSourceConfig config = new SqliteDataSourceConfig();
+    ReflectionTestUtils.setField(config, "url", "jdbc:sqlite:" + tempDir.resolve("test.db"));
+    ReflectionTestUtils.setField(config, "synchronous", "NORMAL");
+    ReflectionTestUtils.setField(config, "busyTimeout", 5000);
+    ReflectionTestUtils.setField(config, "cacheSize", -16000);
+    ReflectionTestUtils.setField(config, "mmapSize", 268435456L);
+    ReflectionTestUtils.setField(config, "tempStore", "MEMORY");
+    ReflectionTestUtils.setField(config, "readPoolSize", 4);
+    ReflectionTestUtils.setField(config, "writeConnectionTimeout", 30000L);
+    ReflectionTestUtils.setField(config, "virtualThreadsEnabled", virtualThreadsEnabled);
+    ReflectionTestUtils.setField(config, "maxActive", 2);
+    ReflectionTestUtils.setField(config, "acquireTimeout", 200L);
+
+    writeDataSource = config.sqliteWriteDataSource();
+    readDataSource = config.sqliteReadDataSource();
+    return config.dataSource(writeDataSource, readDataSource);
+  }
+
+  private Connection openRead(DataSource source) throws Exception {
+    Connection connection = source.getConnection();
+    connection.setReadOnly(true);
+    connection.createStatement().close();
+    return connection;
+  }
+
+  @AfterEach
+  void tearDown() {
+    readDataSource.close();
+    writeDataSource.close();
+  }
+
+  @Test
+  void connections_applyPragmas() {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    assertEquals("wal", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
+    // synchronous=NORMAL 為 1，temp_store=MEMORY 為 2
+    assertEquals(1, jdbcTemplate.queryForObject("PRAGMA synchronous", Integer.class));
+    assertEquals(5000, jdbcTemplate.queryForObject("PRAGMA busy_timeout", Integer.class));
+    assertEquals(-16000, jdbcTemplate.queryForObject("PRAGMA cache_size", Integer.class));
+    assertEquals(2, jdbcTemplate.queryForObject("PRAGMA temp_store", Integer.class));
+    assertEquals(1, writeDataSource.getMaximumPoolSize());
+  }
+
+  @Test
+  void readOnlyTransaction_usesReadPool() {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name TEXT)");
+    jdbcTemplate.update("INSERT INTO item (name) VALUES ('a')");
+
+    TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    readOnly.setReadOnly(true);
+
+    // 唯讀事務可以讀取已提交的資料，但寫入會被唯讀連線拒絕
+    Integer count = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+    assertEquals(1, count);
+    assertThrows(Exception.class, () -> readOnly.executeWithoutResult(
+        status -> jdbcTemplate.update("INSERT INTO item (name) VALUES ('b')")));
+  }
+
+  @Test
+  void reads_beyondMaxActive_waitForRelease() throws Exception {
+    // 準備 - 佔用全部兩個讀取許可
+    Connection first = openRead(dataSource);
+    Connection second = openRead(dataSource);
+
+    // 執行與驗證 - 第三條讀取連線等待逾時
+    Connection blocked = dataSource.getConnection();
+    blocked.setReadOnly(true);
+    assertThrows(SQLTransientConnectionException.class, blocked::createStatement);
+
+    // 歸還一個許可後可以取得一條連線
+    first.close();
+    Connection next = openRead(dataSource);
+
+    next.close();
+    second.close();
+  }
+
+  @Test
+  void queuedWriters_doNotBlockReads() throws Exception {
+    // 準備 - 一個寫入者持有寫入連線，另一個寫入者在寫入池中等待
+    Connection writeConnection = dataSource.getConnection();
+    writeConnection.createStatement().close();
+    Thread queuedWriter = new Thread(() -> {
+      try (Connection connection = dataSource.getConnection()) {
+        connection.createStatement().close();
+      } catch (Exception e) {
+        // 測試結束時關閉連線池
+      }
+    });
+    queuedWriter.start();
+    while (writeDataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+      Thread.sleep(10);
+    }
+
+    // 執行與驗證 - 讀取仍可使用全部兩個許可
+    Connection first = openRead(dataSource);
+    Connection second = openRead(dataSource);
+
+    first.close();
+    second.close();
+    writeConnection.close();
+    queuedWriter.join();
+  }
+
+  @Test
+  void virtualThreadsDisabled_readsAreNotLimited() throws Exception {
+    // 準備
+    readDataSource.close();
+    writeDataSource.close();
+    DataSource unlimited = createDataSource(false);
+
+    // 執行與驗證 - 超過 max-active 的讀取不會等待
+    Connection first = openRead(unlimited);
+    Connection second = openRead(unlimited);
+    Connection third = openRead(unlimited);
+
+    first.close();
+    second.close();
+    third.close();
+  }
+}
@@ -14,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
@@ -263,6 +264,319 @@ class ApiIntegrationTest {
         .andExpect(jsonPath("$[1].content", anyOf(is("測試發文1"), is("測試發文2"))));
   }
 
+  @Test
+  void getAllPosts_matchingEtag_returnsNotModified() throws Exception {
+    // 第一次請求取得 ETag
+    MvcResult first = mockMvc.perform(get("/api/posts"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andExpect(header().exists("Last-Modified"))
+        .andExpect(header().string("Cache-Control", "no-cache"))
+        .andReturn();
+    String etag = first.getResponse().getHeader("ETag");
+
+    // 帶上 If-None-Match 再次請求，內容未變更
+    mockMvc.perform(get("/api/posts").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andExpect(content().string(""));
+
+    // 不同的 ETag 返回完整內容
+    mockMvc.perform(get("/api/posts").header("If-None-Match", "\"stale\""))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void getCommentsByPostId_matchingEtag_returnsNotModified() throws Exception {
+    MvcResult first = mockMvc.perform(get("/api/comments/post/1")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn();
+
+    mockMvc.perform(get("/api/comments/post/1")
+        .header("Authorization", "Bearer " + testUserToken)
+        .header("If-None-Match", first.getResponse().getHeader("ETag")))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void exportPosts_authenticated_streamsNdjson() throws Exception {
+    // 執行 - 串流響應以非同步方式寫出
+    MvcResult result = mockMvc.perform(get("/api/posts/export")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // 驗證
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"));
+  }
+
+  @Test
+  void exportPosts_unauthenticatedUser_fails() throws Exception {
+    mockMvc.perform(get("/api/posts/export"))
+        .andExpect(status().isForbidden());
+  }
+
+  private static RequestPostProcessor remoteClient() {
+    return request -> {
+      request.setRemoteAddr("203.0.113.10");
+      return request;
+    };
+  }
+
+  @Test
+  void actuator_remoteClient_onlyHealthAllowed() throws Exception {
+    // 管理端點在獨立的埠提供，此處只驗證授權規則：遠端請求不能讀取監控指標，即使已登入
+    mockMvc.perform(get("/actuator/prometheus").with(remoteClient()))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/actuator/prometheus")
+        .header("Authorization", "Bearer " + testUserToken)
+        .with(remoteClient()))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/actuator/health").with(remoteClient()))
+        .andExpect(status().is(not(403)));
+  }
+
+  @Test
+  void getFeed_pagesThroughPostsWithCursor() throws Exception {
+    // 創建三篇測試發文
+    for (int i = 1; i <= 3; i++) {
+      Map<String, String> postRequest = new HashMap<>();
+      postRequest.put("content", "動態牆發文" + i);
+      mockMvc.perform(post("/api/posts")
+          .header("Authorization", "Bearer " + testUserToken)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(objectMapper.writeValueAsString(postRequest)))
+          .andExpect(status().isCreated());
+    }
+
+    // 第一頁
+    MvcResult firstPage = mockMvc.perform(get("/api/posts/feed").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].content", is("動態牆發文3")))
+        .andExpect(jsonPath("$.items[1].content", is("動態牆發文2")))
+        .andExpect(jsonPath("$.hasMore", is(true)))
+        .andReturn();
+
+    String nextCursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+        .get("nextCursor").asText();
+
+    // 第二頁應從上一頁最後一筆之後開始
+    mockMvc.perform(get("/api/posts/feed").param("limit", "2").param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].content", is("動態牆發文1")));
+  }
+
+  @Test
+  void getFeed_includeComments_returnsCountsAndPreviews() throws Exception {
+    // 創建一篇發文
+    Map<String, String> postRequest = new HashMap<>();
+    postRequest.put("content", "有留言的發文");
+
+    MvcResult postResult = mockMvc.perform(post("/api/posts")
+        .header("Authorization", "Bearer " + testUserToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(postRequest)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    Integer postId = (Integer) objectMapper.readValue(
+        postResult.getResponse().getContentAsString(), Map.class).get("postId");
+
+    // 添加三則留言
+    for (int i = 1; i <= 3; i++) {
+      Map<String, Object> commentRequest = new HashMap<>();
+      commentRequest.put("postId", postId);
+      commentRequest.put("content", "留言" + i);
+      mockMvc.perform(post("/api/comments")
+          .header("Authorization", "Bearer " + testUserToken)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(objectMapper.writeValueAsString(commentRequest)))
+          .andExpect(status().isCreated());
+    }
+
+    // 動態牆應包含留言總數及最早的兩則留言
+    mockMvc.perform(get("/api/posts/feed")
+        .param("limit", "1")
+        .param("includeComments", "true")
+        .param("previewSize", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].postId", is(postId)))
+        .andExpect(jsonPath("$.items[0].commentCount", is(3)))
+        .andExpect(jsonPath("$.items[0].comments", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].comments[0].content", is("留言1")))
+        .andExpect(jsonPath("$.items[0].comments[1].content", is("留言2")))
+        .andExpect(jsonPath("$.items[0].comments[0].createdAt", notNullValue()));
+  }
+
+  @Test
+  void getCommentPage_pagesThroughThreadInBothDirections() throws Exception {
+    // 創建一篇發文及三則留言
+    Map<String, Object> postRequest = new HashMap<>();
+    postRequest.put("content", "留言串分頁測試");
+    MvcResult postResult = mockMvc.perform(post("/api/posts")
+        .header("Authorization", "Bearer " + testUserToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(postRequest)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    Integer postId = (Integer) objectMapper.readValue(
+        postResult.getResponse().getContentAsString(), Map.class).get("postId");
+    for (int i = 1; i <= 3; i++) {
+      Map<String, Object> commentRequest = new HashMap<>();
+      commentRequest.put("postId", postId);
+      commentRequest.put("content", "留言" + i);
+      mockMvc.perform(post("/api/comments")
+          .header("Authorization", "Bearer " + testUserToken)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(objectMapper.writeValueAsString(commentRequest)))
+          .andExpect(status().isCreated());
+    }
+
+    // 由舊到新的第一頁
+    MvcResult firstPage = mockMvc.perform(get("/api/comments/post/" + postId + "/page")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(jsonPath("$.items[0].content", is("留言1")))
+        .andExpect(jsonPath("$.items[1].content", is("留言2")))
+        .andExpect(jsonPath("$.hasMore", is(true)))
+        .andReturn();
+    String nextCursor = (String) objectMapper.readValue(
+        firstPage.getResponse().getContentAsString(), Map.class).get("nextCursor");
+
+    // 以游標取得最後一頁
+    mockMvc.perform(get("/api/comments/post/" + postId + "/page")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("limit", "2")
+        .param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].content", is("留言3")))
+        .andExpect(jsonPath("$.hasMore", is(false)));
+
+    // 由新到舊
+    mockMvc.perform(get("/api/comments/post/" + postId + "/page")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("limit", "1")
+        .param("order", "newest"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].content", is("留言3")))
+        .andExpect(jsonPath("$.hasMore", is(true)));
+
+    // 無效的排序方向
+    mockMvc.perform(get("/api/comments/post/" + postId + "/page")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("order", "sideways"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void search_createdPost_isFoundByChineseWord() throws Exception {
+    // 創建發文
+    Map<String, Object> postRequest = new HashMap<>();
+    postRequest.put("content", "今天在夜市吃到很好吃的蚵仔煎");
+    MvcResult postResult = mockMvc.perform(post("/api/posts")
+        .header("Authorization", "Bearer " + testUserToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(postRequest)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    Integer postId = (Integer) objectMapper.readValue(
+        postResult.getResponse().getContentAsString(), Map.class).get("postId");
+
+    // 以詞語搜尋
+    mockMvc.perform(get("/api/search")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("q", "蚵仔煎 夜市"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].postId", is(postId)));
+
+    // 空白關鍵字
+    mockMvc.perform(get("/api/search")
+        .header("Authorization", "Bearer " + testUserToken)
+        .param("q", " "))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void follow_otherUser_createdOnceAndTimelineReadable() throws Exception {
+    // 註冊被追蹤的用戶
+    Map<String, String> registerRequest = new HashMap<>();
+    registerRequest.put("phoneNumber", "5555555555");
+    registerRequest.put("userName", "被追蹤者");
+    registerRequest.put("password", "password123");
+    MvcResult registerResult = mockMvc.perform(post("/api/register")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(registerRequest)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    @SuppressWarnings("unchecked")
+    Map<String, Object> data = (Map<String, Object>) objectMapper.readValue(
+        registerResult.getResponse().getContentAsString(), Map.class).get("data");
+    Object followeeId = data.get("userId");
+
+    // 第一次追蹤建立關係，重複追蹤不會出錯
+    mockMvc.perform(post("/api/users/" + followeeId + "/follow")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.following", is(true)));
+    mockMvc.perform(post("/api/users/" + followeeId + "/follow")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isOk());
+
+    // 不存在的用戶
+    mockMvc.perform(post("/api/users/999999/follow")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isBadRequest());
+
+    // 首頁時間軸需要登入
+    mockMvc.perform(get("/api/timeline"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/api/timeline")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", notNullValue()));
+
+    mockMvc.perform(delete("/api/users/" + followeeId + "/follow")
+        .header("Authorization", "Bearer " + testUserToken))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  void getTrending_viewedPost_isListedWithoutLogin() throws Exception {
+    // 創建並瀏覽發文
+    Map<String, String> postRequest = new HashMap<>();
+    postRequest.put("content", "熱門發文測試");
+    MvcResult postResult = mockMvc.perform(post("/api/posts")
+        .header("Authorization", "Bearer " + testUserToken)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(postRequest)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    Integer postId = (Integer) objectMapper.readValue(
+        postResult.getResponse().getContentAsString(), Map.class).get("postId");
+    mockMvc.perform(get("/api/posts/" + postId))
+        .andExpect(status().isOk());
+
+    // 熱門排行不需要登入
+    mockMvc.perform(get("/api/posts/trending").param("limit", "50"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[*].postId", hasItem(postId)));
+  }
+
+  @Test
+  void getFeed_invalidCursor_returnsBadRequest() throws Exception {
+    mockMvc.perform(get("/api/posts/feed").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string(containsString("無效的分頁游標")));
+  }
+
   @Test
   void updatePost_authenticatedOwner_success() throws Exception {
     // 首先創建一篇發文
@@ -0,0 +1,80 @@
+package com.example.social_backend.repository;
+
+import com.example.social_backend.repository.AtomicInsertTemplate.Insert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicInsertTemplateTest {
+
+  private static final String INSERT_POST_SQL =
+      "INSERT INTO post (userid, content, image, created_at) VALUES (?, ?, ?, ?) RETURNING postid";
+
+  private static final String INSERT_COMMENT_SQL =
+      "INSERT INTO comment (userid, postid, content, created_at) VALUES (?, ?, ?, ?) RETURNING commentid";
+
+  @TempDir
+  Path tempDir;
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private AtomicInsertTemplate atomicInsertTemplate;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("insert.db"), true);
+    new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    atomicInsertTemplate = new AtomicInsertTemplate(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  void insertAll_returnsGeneratedIdsAndLinksLaterInserts() {
+    // 準備
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    // 執行
+    List<Long> ids = atomicInsertTemplate.insertAll(List.of(
+        Insert.of(INSERT_POST_SQL, 1L, "發文", null, now),
+        new Insert(INSERT_COMMENT_SQL, previousIds -> new Object[] { 1L, previousIds.get(0), "留言一", now }),
+        new Insert(INSERT_COMMENT_SQL, previousIds -> new Object[] { 1L, previousIds.get(0), "留言二", now })));
+
+    // 驗證
+    assertEquals(3, ids.size());
+    assertEquals(ids.get(0), jdbcTemplate.queryForObject(
+        "SELECT postid FROM comment WHERE commentid = ?", Long.class, ids.get(1)));
+    assertEquals(2, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM comment WHERE postid = ?", Integer.class, ids.get(0)));
+  }
+
+  @Test
+  void insertAll_laterInsertFails_rollsBackEarlierInserts() {
+    // 準備 - 留言內容為NULL違反非空約束
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+
+    // 執行
+    assertThrows(RuntimeException.class, () -> atomicInsertTemplate.insertAll(List.of(
+        Insert.of(INSERT_POST_SQL, 1L, "發文", null, now),
+        new Insert(INSERT_COMMENT_SQL, previousIds -> new Object[] { 1L, previousIds.get(0), null, now }))));
+
+    // 驗證
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post", Integer.class));
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.social_backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentUserIdArgumentResolverTest {
+
+  private final CurrentUserIdArgumentResolver resolver = new CurrentUserIdArgumentResolver();
+
+  @SuppressWarnings("unused")
+  private void handler(@CurrentUserId Long required, @CurrentUserId(required = false) Long optional, Long plain) {
+  }
+
+  private MethodParameter parameter(int index) throws NoSuchMethodException {
+    Method method = getClass().getDeclaredMethod("handler", Long.class, Long.class, Long.class);
+    return new MethodParameter(method, index);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void supportsParameter_onlyAnnotatedParameters() throws Exception {
+    assertTrue(resolver.supportsParameter(parameter(0)));
+    assertTrue(resolver.supportsParameter(parameter(1)));
+    assertFalse(resolver.supportsParameter(parameter(2)));
+  }
+
+  @Test
+  void resolveArgument_authenticated_returnsPrincipalUserId() throws Exception {
+    // 準備
+    AuthenticatedUser principal = new AuthenticatedUser(7L, List.of("ROLE_USER"));
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        principal, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+    // 執行 & 驗證
+    assertEquals(7L, resolver.resolveArgument(parameter(0), null, null, null));
+  }
+
+  @Test
+  void resolveArgument_unauthenticatedRequired_throwsUnauthorized() throws Exception {
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> resolver.resolveArgument(parameter(0), null, null, null));
+    assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
+  }
+
+  @Test
+  void resolveArgument_unauthenticatedOptional_returnsNull() throws Exception {
+    assertNull(resolver.resolveArgument(parameter(1), null, null, null));
+  }
+}
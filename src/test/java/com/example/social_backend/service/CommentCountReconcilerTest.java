@@ -0,0 +1,107 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.event.PostChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CommentCountReconcilerTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private ConcurrentMapCacheManager cacheManager;
+  private ApplicationEventPublisher eventPublisher;
+  private CommentCountReconciler reconciler;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("reconcile.db"), true);
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+        new ClassPathResource("db/migration/V2__add_secondary_indexes.sql"),
+        new ClassPathResource("db/migration/V3__add_post_comment_counter.sql")).execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    cacheManager = new ConcurrentMapCacheManager(CacheConfig.POSTS_CACHE);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    reconciler = new CommentCountReconciler(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+        cacheManager, eventPublisher);
+    // 小批次以涵蓋多個ID範圍
+    ReflectionTestUtils.setField(reconciler, "batchSize", 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  private long insertPost(long commentCount) {
+    return jdbcTemplate.queryForObject("INSERT INTO post (userid, content, created_at, comment_count) "
+        + "VALUES (1, '發文', ?, ?) RETURNING postid", Long.class, new Timestamp(1000), commentCount);
+  }
+
+  private void insertComment(long postId, long createdAtMillis) {
+    jdbcTemplate.update("INSERT INTO comment (userid, postid, content, created_at) VALUES (1, ?, '留言', ?)",
+        postId, new Timestamp(createdAtMillis));
+  }
+
+  @Test
+  void reconcile_driftedCounts_repairsOnlyDriftedPosts() {
+    // 準備 - 第1篇計數正確，第3篇少算，第4篇多算
+    long correct = insertPost(0);
+    insertPost(0);
+    long undercounted = insertPost(0);
+    long overcounted = insertPost(5);
+    insertComment(undercounted, 2000);
+    insertComment(undercounted, 3000);
+    insertComment(overcounted, 4000);
+    jdbcTemplate.update("UPDATE post SET comment_count = 0, last_comment_at = NULL WHERE postid = ?", undercounted);
+    jdbcTemplate.update("UPDATE post SET comment_count = 5, last_comment_at = 4000 WHERE postid = ?", overcounted);
+    cacheManager.getCache(CacheConfig.POSTS_CACHE).put(undercounted, "過期的發文");
+
+    // 執行
+    int repaired = reconciler.reconcile();
+
+    // 驗證
+    assertEquals(2, repaired);
+    assertEquals(2L, jdbcTemplate.queryForObject("SELECT comment_count FROM post WHERE postid = ?", Long.class,
+        undercounted));
+    assertEquals(3000L, jdbcTemplate.queryForObject("SELECT last_comment_at FROM post WHERE postid = ?", Long.class,
+        undercounted));
+    assertEquals(1L, jdbcTemplate.queryForObject("SELECT comment_count FROM post WHERE postid = ?", Long.class,
+        overcounted));
+    assertEquals(0L, jdbcTemplate.queryForObject("SELECT comment_count FROM post WHERE postid = ?", Long.class,
+        correct));
+    assertNull(cacheManager.getCache(CacheConfig.POSTS_CACHE).get(undercounted));
+    verify(eventPublisher).publishEvent(new PostChangedEvent(undercounted, PostChangedEvent.Type.UPDATED));
+    verify(eventPublisher).publishEvent(new PostChangedEvent(overcounted, PostChangedEvent.Type.UPDATED));
+
+    // 再次執行時沒有需要修復的發文
+    assertEquals(0, reconciler.reconcile());
+  }
+
+  @Test
+  void reconcile_noPosts_returnsZero() {
+    assertEquals(0, reconciler.reconcile());
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+}
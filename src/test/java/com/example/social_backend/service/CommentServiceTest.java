@@ -1,24 +1,36 @@
 package com.example.social_backend.service;
 
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
 import com.example.social_backend.entity.Comment;
+import com.example.social_backend.event.CommentChangedEvent;
 import com.example.social_backend.entity.Post;
 import com.example.social_backend.repository.CommentRepository;
 import com.example.social_backend.repository.PostRepository;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.CursorCodec;
 import com.example.social_backend.util.SanitizerUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class CommentServiceTest {
@@ -32,6 +44,21 @@ class CommentServiceTest {
   @Mock
   private SanitizerUtil sanitizerUtil;
 
+  @Mock
+  private WriteBatcher writeBatcher;
+
+  @Mock
+  private SearchIndexRepository searchIndexRepository;
+
+  @Mock
+  private CacheManager cacheManager;
+
+  @Mock
+  private TrendingService trendingService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks
   private CommentService commentService;
 
@@ -39,6 +66,9 @@ class CommentServiceTest {
   void setUp() {
     MockitoAnnotations.openMocks(this);
 
+    // 批次處理器直接執行寫入
+    when(writeBatcher.submit(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
     // 配置SanitizerUtil模擬
     when(sanitizerUtil.sanitize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
   }
@@ -59,6 +89,9 @@ class CommentServiceTest {
 
     when(postRepository.findById(postId)).thenReturn(Optional.of(post));
     when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
+    when(postRepository.incrementCommentCount(postId, savedComment.getCreatedAt())).thenReturn(1);
+    Cache postsCache = mock(Cache.class);
+    when(cacheManager.getCache(CacheConfig.POSTS_CACHE)).thenReturn(postsCache);
 
     // 執行
     Comment result = commentService.createComment(userId, postId, content);
@@ -74,6 +107,11 @@ class CommentServiceTest {
     verify(sanitizerUtil, times(1)).sanitize(content);
     verify(postRepository, times(1)).findById(postId);
     verify(commentRepository, times(1)).save(any(Comment.class));
+    verify(postRepository, times(1)).incrementCommentCount(postId, savedComment.getCreatedAt());
+    verify(searchIndexRepository, times(1)).indexComment(1L, content);
+    verify(postsCache, times(1)).evict(postId);
+    verify(trendingService, times(1)).recordComment(post);
+    verify(eventPublisher, times(1)).publishEvent(new CommentChangedEvent(postId, 1L));
   }
 
   @Test
@@ -139,31 +177,117 @@ class CommentServiceTest {
     verify(commentRepository, never()).save(any(Comment.class));
   }
 
+  @Test
+  void createComment_postDeletedBeforeInsert_throwsException() {
+    // 準備 - 檢查時發文存在，遞增留言數量時已被刪除
+    Long postId = 1L;
+    Post post = new Post(1L, "發文內容", null);
+    post.setPostId(postId);
+    Comment savedComment = new Comment(1L, postId, "這是一則測試留言");
+    savedComment.setCommentId(1L);
+
+    when(postRepository.findById(postId)).thenReturn(Optional.of(post));
+    when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
+    when(postRepository.incrementCommentCount(eq(postId), any())).thenReturn(0);
+
+    // 執行和驗證 - 例外使批次事務回滾留言
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      commentService.createComment(1L, postId, "這是一則測試留言");
+    });
+
+    assertEquals("找不到ID為 " + postId + " 的發文", exception.getMessage());
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
   @Test
   void getCommentsByPostId_returnsCommentsForPost() {
     // 準備
     Long postId = 1L;
 
-    Comment comment1 = new Comment(1L, postId, "留言1");
-    comment1.setCommentId(1L);
-    comment1.setCreatedAt(LocalDateTime.now().minusHours(1));
-
-    Comment comment2 = new Comment(2L, postId, "留言2");
-    comment2.setCommentId(2L);
-    comment2.setCreatedAt(LocalDateTime.now());
+    CommentView comment1 = new CommentView(1L, 1L, postId, "留言1", LocalDateTime.now().minusHours(1));
+    CommentView comment2 = new CommentView(2L, 2L, postId, "留言2", LocalDateTime.now());
 
-    List<Comment> expectedComments = Arrays.asList(comment1, comment2);
+    List<CommentView> expectedComments = Arrays.asList(comment1, comment2);
 
-    when(commentRepository.findByPostIdOrderByCreatedAtAsc(postId)).thenReturn(expectedComments);
+    when(commentRepository.findViewsByPostIdOrderByCreatedAtAsc(postId)).thenReturn(expectedComments);
 
     // 執行
-    List<Comment> result = commentService.getCommentsByPostId(postId);
+    List<CommentView> result = commentService.getCommentsByPostId(postId);
 
     // 驗證
     assertEquals(2, result.size());
     assertEquals(comment1, result.get(0));
     assertEquals(comment2, result.get(1));
 
-    verify(commentRepository, times(1)).findByPostIdOrderByCreatedAtAsc(postId);
+    verify(commentRepository, times(1)).findViewsByPostIdOrderByCreatedAtAsc(postId);
+  }
+
+  @Test
+  void getCommentPage_firstPageOldestFirst_returnsCursorWhenMoreRemain() {
+    // 準備
+    Long postId = 1L;
+    LocalDateTime now = LocalDateTime.now();
+    List<Comment> comments = Arrays.asList(comment(1L, postId, now), comment(2L, postId, now.plusSeconds(1)),
+        comment(3L, postId, now.plusSeconds(2)));
+    when(commentRepository.findThreadOldestFirst(postId, 3)).thenReturn(comments);
+
+    // 執行 - 多取的一筆不返回，只用來判斷是否還有下一頁
+    CursorPage<CommentView> page = commentService.getCommentPage(postId, null, 2, false);
+
+    // 驗證
+    assertEquals(2, page.getItems().size());
+    assertEquals(1L, page.getItems().get(0).commentId());
+    assertTrue(page.isHasMore());
+    CursorCodec.Cursor cursor = CursorCodec.decode(page.getNextCursor());
+    assertEquals(now.plusSeconds(1), cursor.createdAt());
+    assertEquals(2L, cursor.id());
+  }
+
+  @Test
+  void getCommentPage_nextPageNewestFirst_usesKeysetAndEndsWithoutCursor() {
+    // 準備
+    Long postId = 1L;
+    LocalDateTime now = LocalDateTime.now();
+    String cursor = CursorCodec.encode(now, 5L);
+    when(commentRepository.findThreadNewestFirstBefore(postId, now, 5L, 21))
+        .thenReturn(List.of(comment(4L, postId, now.minusSeconds(1))));
+
+    // 執行
+    CursorPage<CommentView> page = commentService.getCommentPage(postId, cursor, 20, true);
+
+    // 驗證
+    assertEquals(1, page.getItems().size());
+    assertFalse(page.isHasMore());
+    assertNull(page.getNextCursor());
+    verify(commentRepository, never()).findViewsByPostIdOrderByCreatedAtAsc(anyLong());
+  }
+
+  @Test
+  void getCommentPage_limitAboveMaximum_isCapped() {
+    // 準備
+    when(commentRepository.findThreadOldestFirst(1L, CommentService.MAX_COMMENT_PAGE_SIZE + 1)).thenReturn(List.of());
+
+    // 執行
+    CursorPage<CommentView> page = commentService.getCommentPage(1L, null, 100000, false);
+
+    // 驗證
+    assertTrue(page.getItems().isEmpty());
+    verify(commentRepository, times(1)).findThreadOldestFirst(1L, CommentService.MAX_COMMENT_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void getCommentPage_invalidCursor_throwsException() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      commentService.getCommentPage(1L, "not-a-cursor", 20, false);
+    });
+
+    assertEquals("無效的分頁游標", exception.getMessage());
+  }
+
+  private Comment comment(Long commentId, Long postId, LocalDateTime createdAt) {
+    Comment comment = new Comment(1L, postId, "留言" + commentId);
+    comment.setCommentId(commentId);
+    comment.setCreatedAt(createdAt);
+    return comment;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.event.CommentChangedEvent;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.service.ContentVersionTracker.ContentVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentVersionTrackerTest {
+
+  private ContentVersionTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    tracker = new ContentVersionTracker();
+  }
+
+  @Test
+  void versions_withoutChanges_areStable() {
+    assertEquals(tracker.postListVersion(), tracker.postListVersion());
+    assertEquals(tracker.postVersion(1L), tracker.postVersion(1L));
+    assertEquals(tracker.commentListVersion(1L), tracker.commentListVersion(1L));
+  }
+
+  @Test
+  void onPostChanged_changesPostAndListVersionsOnly() {
+    // 準備
+    ContentVersion list = tracker.postListVersion();
+    ContentVersion post = tracker.postVersion(1L);
+    ContentVersion otherPost = tracker.postVersion(2L);
+    ContentVersion comments = tracker.commentListVersion(1L);
+
+    // 執行
+    tracker.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.UPDATED));
+
+    // 驗證
+    assertNotEquals(list.etag(), tracker.postListVersion().etag());
+    assertNotEquals(post.etag(), tracker.postVersion(1L).etag());
+    assertTrue(tracker.postVersion(1L).lastModified() >= post.lastModified());
+    assertEquals(otherPost, tracker.postVersion(2L));
+    assertEquals(comments, tracker.commentListVersion(1L));
+  }
+
+  @Test
+  void onCommentChanged_changesCommentListAndPostVersions() {
+    // 準備
+    ContentVersion list = tracker.postListVersion();
+    ContentVersion post = tracker.postVersion(1L);
+    ContentVersion comments = tracker.commentListVersion(1L);
+
+    // 執行
+    tracker.onCommentChanged(new CommentChangedEvent(1L, 1L));
+
+    // 驗證
+    assertNotEquals(comments.etag(), tracker.commentListVersion(1L).etag());
+    // 單篇發文含有留言數量，發文列表不含
+    assertNotEquals(post.etag(), tracker.postVersion(1L).etag());
+    assertEquals(list, tracker.postListVersion());
+  }
+
+  @Test
+  void onPostChanged_sameStripe_invalidatesConservatively() {
+    // 準備 - 落在同一槽位的兩篇發文
+    Long postId = 5L;
+    Long sameStripePostId = postId + ContentVersionTracker.STRIPES;
+    ContentVersion before = tracker.postVersion(sameStripePostId);
+
+    // 執行
+    tracker.onPostChanged(new PostChangedEvent(postId, PostChangedEvent.Type.UPDATED));
+
+    // 驗證 - 只會造成多餘的完整響應，不會誤判為未變更
+    assertNotEquals(before.etag(), tracker.postVersion(sameStripePostId).etag());
+  }
+
+  @Test
+  void lastModified_rapidChanges_neverInFutureButEtagChanges() {
+    // 準備
+    ContentVersion initial = tracker.postListVersion();
+
+    // 執行 - 同一秒內的多次變更
+    tracker.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.UPDATED));
+    ContentVersion afterFirst = tracker.postListVersion();
+    tracker.onPostChanged(new PostChangedEvent(2L, PostChangedEvent.Type.UPDATED));
+    tracker.onPostChanged(new PostChangedEvent(3L, PostChangedEvent.Type.UPDATED));
+    long now = System.currentTimeMillis();
+
+    // 驗證 - 修改時間不會超過目前時間，同一秒內的變更由 ETag 區分
+    ContentVersion latest = tracker.postListVersion();
+    assertTrue(latest.lastModified() <= now);
+    assertTrue(latest.lastModified() >= initial.lastModified());
+    assertNotEquals(afterFirst.etag(), latest.etag());
+  }
+
+  @Test
+  void etags_differBetweenInstances() {
+    assertNotEquals(tracker.postListVersion().etag(), new ContentVersionTracker().postListVersion().etag());
+  }
+}
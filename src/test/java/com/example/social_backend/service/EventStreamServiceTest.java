@@ -0,0 +1,202 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.event.CommentChangedEvent;
+import com.example.social_backend.event.PostChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventStreamServiceTest {
+
+  private EventStreamService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new EventStreamService(new ObjectMapper());
+    ReflectionTestUtils.setField(service, "bufferSize", 4);
+    ReflectionTestUtils.setField(service, "maxSubscribers", 2);
+    service.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.stop();
+  }
+
+  @Test
+  void onPostChanged_sendsEventToAllSubscribers() throws Exception {
+    // 準備
+    RecordingEmitter first = new RecordingEmitter();
+    RecordingEmitter second = new RecordingEmitter();
+    service.register(first);
+    service.register(second);
+
+    // 執行
+    service.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.CREATED));
+    service.onCommentChanged(new CommentChangedEvent(1L, 7L));
+
+    // 驗證 - 連線訊息之後依序收到兩個事件
+    for (RecordingEmitter emitter : List.of(first, second)) {
+      assertTrue(emitter.next().contains(":connected"));
+      String post = emitter.next();
+      assertTrue(post.contains("event:post"));
+      assertTrue(post.contains("data:{\"postId\":1,\"type\":\"CREATED\"}"));
+      String comment = emitter.next();
+      assertTrue(comment.contains("event:comment"));
+      assertTrue(comment.contains("data:{\"postId\":1,\"commentId\":7}"));
+    }
+  }
+
+  @Test
+  void register_subscriberLimitReached_throwsException() {
+    // 準備
+    service.register(new RecordingEmitter());
+    service.register(new RecordingEmitter());
+
+    // 執行和驗證
+    assertThrows(IllegalStateException.class, () -> service.register(new RecordingEmitter()));
+    assertEquals(2, service.getSubscriberCount());
+  }
+
+  @Test
+  void slowSubscriber_bufferFull_isDroppedWithoutAffectingOthers() throws Exception {
+    // 準備 - 第一個訂閱者的發送被卡住
+    CountDownLatch release = new CountDownLatch(1);
+    BlockingEmitter slow = new BlockingEmitter(release);
+    RecordingEmitter fast = new RecordingEmitter();
+    service.register(slow);
+    service.register(fast);
+    assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+    fast.next();
+
+    // 執行 - 事件數超過緩衝容量，正常訂閱者逐一收到
+    for (long postId = 1; postId <= 10; postId++) {
+      service.onPostChanged(new PostChangedEvent(postId, PostChangedEvent.Type.CREATED));
+      assertTrue(fast.next().contains("\"postId\":" + postId + ","));
+    }
+
+    // 驗證 - 慢速訂閱者被中斷，發佈者不被阻塞，其他訂閱者不受影響
+    assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(1, service.getSubscriberCount());
+    release.countDown();
+  }
+
+  @Test
+  void stalledSubscribers_sendTimeout_areDroppedWithoutStallingOthers() throws Exception {
+    // 準備 - 兩個停止讀取的客戶端，數量與發送執行緒相同
+    service.stop();
+    service = new EventStreamService(new ObjectMapper());
+    ReflectionTestUtils.setField(service, "bufferSize", 4);
+    ReflectionTestUtils.setField(service, "maxSubscribers", 3);
+    ReflectionTestUtils.setField(service, "senderThreads", 2);
+    ReflectionTestUtils.setField(service, "sendTimeout", 200L);
+    service.start();
+    CountDownLatch release = new CountDownLatch(1);
+    BlockingEmitter first = new BlockingEmitter(release);
+    BlockingEmitter second = new BlockingEmitter(release);
+    service.register(first);
+    service.register(second);
+    assertTrue(first.sending.await(5, TimeUnit.SECONDS));
+    assertTrue(second.sending.await(5, TimeUnit.SECONDS));
+
+    // 執行
+    RecordingEmitter fast = new RecordingEmitter();
+    service.register(fast);
+    service.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.CREATED));
+
+    // 驗證 - 卡住的訂閱者逾時後被中斷，正常訂閱者仍收到事件
+    assertTrue(fast.next().contains(":connected"));
+    assertTrue(fast.next().contains("\"postId\":1,"));
+    assertTrue(first.completed.await(5, TimeUnit.SECONDS));
+    assertTrue(second.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(1, service.getSubscriberCount());
+    release.countDown();
+  }
+
+  @Test
+  void sendFailure_removesSubscriber() throws Exception {
+    // 準備
+    RecordingEmitter emitter = new RecordingEmitter();
+    emitter.fail = true;
+
+    // 執行
+    service.register(emitter);
+
+    // 驗證
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (service.getSubscriberCount() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, service.getSubscriberCount());
+  }
+
+  private static String render(SseEmitter.SseEventBuilder builder) {
+    return builder.build().stream()
+        .map(part -> String.valueOf(part.getData()))
+        .collect(Collectors.joining());
+  }
+
+  /**
+   * 記錄已發送事件的串流
+   */
+  private static class RecordingEmitter extends SseEmitter {
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private volatile boolean fail;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (fail) {
+        throw new IOException("客戶端已中斷連線");
+      }
+      sent.add(render(builder));
+    }
+
+    String next() throws InterruptedException {
+      String event = sent.poll(5, TimeUnit.SECONDS);
+      assertNotNull(event, "未在時限內收到事件");
+      return event;
+    }
+  }
+
+  /**
+   * 發送時阻塞的串流，模擬接收過慢的客戶端
+   */
+  private static class BlockingEmitter extends SseEmitter {
+    private final CountDownLatch release;
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    BlockingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      sending.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+  }
+}
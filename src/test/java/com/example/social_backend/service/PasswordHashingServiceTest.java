@@ -0,0 +1,74 @@
+package com.example.social_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+  private PasswordHashingService passwordHashingService;
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Test
+  void encodeAndVerify_roundTrip() {
+    // 準備
+    passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), 1, 4);
+
+    // 執行
+    String encoded = passwordHashingService.encode("password123");
+
+    // 驗證
+    assertTrue(passwordHashingService.verify("password123", encoded).matched());
+    assertNull(passwordHashingService.verify("password123", encoded).upgradedPassword());
+    assertFalse(passwordHashingService.verify("wrong", encoded).matched());
+    assertFalse(passwordHashingService.verify("password123", null).matched());
+  }
+
+  @Test
+  void encode_saturatedExecutor_rejectsInsteadOfQueueing() throws Exception {
+    // 準備 - 單一執行緒、佇列只能容納一個工作，成本因子讓每次雜湊耗時較長
+    passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(12), 1, 1);
+    ExecutorService callers = Executors.newFixedThreadPool(6);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      futures.add(callers.submit(() -> {
+        start.await();
+        return passwordHashingService.encode("password123");
+      }));
+    }
+
+    // 執行
+    start.countDown();
+    int rejected = 0;
+    int completed = 0;
+    for (Future<String> future : futures) {
+      try {
+        future.get();
+        completed++;
+      } catch (ExecutionException e) {
+        assertInstanceOf(PasswordHashingRejectedException.class, e.getCause());
+        rejected++;
+      }
+    }
+    callers.shutdown();
+
+    // 驗證 - 最多一個執行中加一個排隊，其餘立即被拒絕
+    assertTrue(completed >= 1 && completed <= 2);
+    assertEquals(6, completed + rejected);
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.social_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostExportServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private ObjectMapper objectMapper;
+  private PostExportService postExportService;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("export.db"), true);
+    new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    postExportService = new PostExportService(dataSource, new DataSourceTransactionManager(dataSource), objectMapper,
+        1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  private void insertPost(long userId, String content, String image, long createdAtMillis) {
+    jdbcTemplate.update("INSERT INTO post (userid, content, image, created_at) VALUES (?, ?, ?, ?)",
+        userId, content, image, new Timestamp(createdAtMillis));
+  }
+
+  @Test
+  void exportPosts_writesOneJsonObjectPerLineNewestFirst() throws Exception {
+    // 準備
+    long now = System.currentTimeMillis();
+    insertPost(1L, "較早的發文", null, now - 60000);
+    insertPost(2L, "最新的發文\n含換行", "http://example.com/a.jpg", now);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // 執行
+    long count = postExportService.exportPosts(output);
+
+    // 驗證 - 每行一個物件，內容中的換行會被跳脫
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    JsonNode newest = objectMapper.readTree(lines[0]);
+    assertEquals(2L, newest.get("userId").asLong());
+    assertEquals("最新的發文\n含換行", newest.get("content").asText());
+    assertEquals("http://example.com/a.jpg", newest.get("image").asText());
+    assertTrue(newest.get("createdAt").isTextual());
+    assertEquals("較早的發文", objectMapper.readTree(lines[1]).get("content").asText());
+    assertTrue(objectMapper.readTree(lines[1]).get("image").isNull());
+  }
+
+  @Test
+  void exportPosts_emptyTable_writesNothing() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    assertEquals(0, postExportService.exportPosts(output));
+    assertEquals(0, output.size());
+  }
+
+  @Test
+  void exportPosts_multipleChunksWithTies_writesEveryPostOnceWithoutHoldingTransaction() throws Exception {
+    // 準備 - 超過一批，且有多篇發文的創建時間相同
+    long now = System.currentTimeMillis();
+    int total = PostExportService.CHUNK_SIZE * 2 + 7;
+    for (int i = 0; i < total; i++) {
+      insertPost(1L, "發文" + i, null, now - i / 3);
+    }
+    boolean[] writtenInTransaction = new boolean[1];
+    ByteArrayOutputStream output = new ByteArrayOutputStream() {
+      @Override
+      public synchronized void write(byte[] b, int off, int len) {
+        writtenInTransaction[0] |= TransactionSynchronizationManager.isActualTransactionActive();
+        super.write(b, off, len);
+      }
+    };
+
+    // 執行
+    long count = postExportService.exportPosts(output);
+
+    // 驗證 - 寫出時不在事務中（不持有連線），每篇發文恰好一次
+    assertEquals(total, count);
+    assertFalse(writtenInTransaction[0]);
+    Set<Long> postIds = new HashSet<>();
+    for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+      assertTrue(postIds.add(objectMapper.readTree(line).get("postId").asLong()));
+    }
+    assertEquals(total, postIds.size());
+  }
+
+  @Test
+  void openExport_overConcurrencyLimit_rejectedUntilRunningExportFinishes() throws Exception {
+    // 準備 - 上限為 1
+    StreamingResponseBody first = postExportService.openExport();
+
+    // 執行與驗證
+    assertThrows(IllegalStateException.class, () -> postExportService.openExport());
+    first.writeTo(new ByteArrayOutputStream());
+    assertDoesNotThrow(() -> postExportService.openExport());
+  }
+
+  @Test
+  void exportPosts_clientDisconnects_stopsAndPropagatesIOException() {
+    // 準備 - 足夠多的發文讓輸出超過緩衝區
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < 2000; i++) {
+      insertPost(1L, "發文" + i, null, now + i);
+    }
+    OutputStream brokenStream = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("連線已中斷");
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        throw new IOException("連線已中斷");
+      }
+    };
+
+    // 執行與驗證
+    IOException exception = assertThrows(IOException.class, () -> postExportService.exportPosts(brokenStream));
+    assertEquals("連線已中斷", exception.getMessage());
+  }
+}
@@ -0,0 +1,256 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.config.CacheConfig;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.repository.AtomicInsertTemplate;
+import com.example.social_backend.repository.CommentRepository;
+import com.example.social_backend.repository.PostRepository;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.SanitizerUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class PostServiceCachingTest {
+
+  /**
+   * 在快取配置之後註冊事務攔截器，與應用程式相同：快取攔截器在事務攔截器之外，快取註解晚於事務完成才執行
+   */
+  @Configuration
+  @EnableTransactionManagement
+  static class TransactionConfig {
+
+    @Bean
+    PlatformTransactionManager transactionManager() {
+      return new DataSourceTransactionManager(new SingleConnectionDataSource("jdbc:sqlite::memory:", true));
+    }
+  }
+
+  @Configuration
+  @Import({ CacheConfig.class, TransactionConfig.class })
+  static class TestConfig {
+
+    @Bean
+    VersionBumpProbe versionBumpProbe(ApplicationContext context) {
+      return new VersionBumpProbe(context);
+    }
+
+    @Bean
+    PostRepository postRepository() {
+      return mock(PostRepository.class);
+    }
+
+    @Bean
+    SanitizerUtil sanitizerUtil() {
+      return mock(SanitizerUtil.class);
+    }
+
+    @Bean
+    PostService postService(PostRepository postRepository, SanitizerUtil sanitizerUtil, CacheManager cacheManager,
+        ApplicationContext context) {
+      WriteBatcher writeBatcher = mock(WriteBatcher.class);
+      when(writeBatcher.submit(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+      return new PostService(postRepository, mock(CommentRepository.class), sanitizerUtil, mock(AtomicInsertTemplate.class),
+          writeBatcher, mock(SearchIndexRepository.class), cacheManager, context);
+    }
+  }
+
+  /**
+   * 與版本遞增（ContentVersionTracker）在同一階段讀取發文，記錄讀到新版本的請求會取得的內容
+   */
+  static class VersionBumpProbe {
+
+    private final ApplicationContext context;
+    private final List<String> observed = new ArrayList<>();
+
+    VersionBumpProbe(ApplicationContext context) {
+      this.context = context;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+      if (event.type() == PostChangedEvent.Type.CREATED) {
+        return;
+      }
+      try {
+        observed.add(context.getBean(PostService.class).getPostById(event.postId()).getContent());
+      } catch (IllegalArgumentException e) {
+        observed.add("not found");
+      }
+    }
+  }
+
+  @Autowired
+  private PostService postService;
+
+  @Autowired
+  private PostRepository postRepository;
+
+  @Autowired
+  private SanitizerUtil sanitizerUtil;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private VersionBumpProbe versionBumpProbe;
+
+  private Post existingPost;
+
+  // 模擬資料庫中的發文是否已被刪除
+  private final AtomicBoolean deleted = new AtomicBoolean();
+
+  @BeforeEach
+  void setUp() {
+    reset(postRepository, sanitizerUtil);
+    versionBumpProbe.observed.clear();
+    cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+    when(sanitizerUtil.sanitize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(sanitizerUtil.sanitizeUrl(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    existingPost = new Post(1L, "原始內容", null);
+    existingPost.setPostId(10L);
+    deleted.set(false);
+    when(postRepository.findById(10L))
+        .thenAnswer(invocation -> deleted.get() ? Optional.empty() : Optional.of(existingPost));
+    doAnswer(invocation -> {
+      deleted.set(true);
+      return null;
+    }).when(postRepository).delete(existingPost);
+    when(postRepository.findViewsByUserIdOrderByCreatedAtDesc(1L))
+        .thenReturn(List.of(new PostView(10L, 1L, "原始內容", null, existingPost.getCreatedAt())));
+  }
+
+  @Test
+  void getPostById_repeatedCalls_hitDatabaseOnce() {
+    // 執行
+    postService.getPostById(10L);
+    postService.getPostById(10L);
+    postService.getPostById(10L);
+
+    // 驗證
+    verify(postRepository, times(1)).findById(10L);
+  }
+
+  @Test
+  void getPostById_nonExistingPost_isNotCached() {
+    // 準備
+    when(postRepository.findById(99L)).thenReturn(Optional.empty());
+
+    // 執行
+    assertThrows(IllegalArgumentException.class, () -> postService.getPostById(99L));
+    assertThrows(IllegalArgumentException.class, () -> postService.getPostById(99L));
+
+    // 驗證
+    verify(postRepository, times(2)).findById(99L);
+  }
+
+  @Test
+  void updatePost_replacesCachedPostAndEvictsUserPosts() {
+    // 準備
+    postService.getPostById(10L);
+    postService.getPostsByUserId(1L);
+
+    Post updatedPost = new Post(1L, "更新後的內容", null);
+    updatedPost.setPostId(10L);
+    when(postRepository.save(any(Post.class))).thenReturn(updatedPost);
+
+    // 執行
+    postService.updatePost(1L, 10L, "更新後的內容", null);
+
+    // 驗證 - 單篇發文直接由快取返回新內容，用戶發文列表需重新查詢
+    assertEquals("更新後的內容", postService.getPostById(10L).getContent());
+    postService.getPostsByUserId(1L);
+    verify(postRepository, times(2)).findViewsByUserIdOrderByCreatedAtDesc(1L);
+  }
+
+  @Test
+  void deletePost_evictsPostAndUserPosts() {
+    // 準備
+    postService.getPostById(10L);
+    postService.getPostsByUserId(1L);
+
+    // 執行
+    postService.deletePost(1L, 10L);
+
+    // 驗證
+    assertThrows(IllegalArgumentException.class, () -> postService.getPostById(10L));
+    postService.getPostsByUserId(1L);
+    verify(postRepository, times(2)).findViewsByUserIdOrderByCreatedAtDesc(1L);
+  }
+
+  @Test
+  void updatePost_readAtVersionBump_seesNewContent() {
+    // 準備 - 快取中是另一個實例，避免更新時直接修改到快取的物件
+    Post cached = new Post(1L, "原始內容", null);
+    cached.setPostId(10L);
+    cacheManager.getCache(CacheConfig.POSTS_CACHE).put(10L, cached);
+
+    Post updatedPost = new Post(1L, "更新後的內容", null);
+    updatedPost.setPostId(10L);
+    when(postRepository.save(any(Post.class))).thenReturn(updatedPost);
+
+    // 執行
+    postService.updatePost(1L, 10L, "更新後的內容", null);
+
+    // 驗證 - 提交後、版本遞增時讀到的已經是新內容
+    assertEquals(List.of("更新後的內容"), versionBumpProbe.observed);
+  }
+
+  @Test
+  void deletePost_readAtVersionBump_doesNotSeeCachedPost() {
+    // 準備
+    postService.getPostById(10L);
+
+    // 執行
+    postService.deletePost(1L, 10L);
+
+    // 驗證
+    assertEquals(List.of("not found"), versionBumpProbe.observed);
+  }
+
+  @Test
+  void createPost_evictsUserPostsAndCachesNewPost() {
+    // 準備
+    postService.getPostsByUserId(1L);
+
+    Post newPost = new Post(1L, "新發文", null);
+    newPost.setPostId(11L);
+    when(postRepository.save(any(Post.class))).thenReturn(newPost);
+
+    // 執行
+    postService.createPost(1L, "新發文", null);
+
+    // 驗證
+    postService.getPostsByUserId(1L);
+    verify(postRepository, times(2)).findViewsByUserIdOrderByCreatedAtDesc(1L);
+    assertEquals("新發文", postService.getPostById(11L).getContent());
+    verify(postRepository, never()).findById(11L);
+  }
+}
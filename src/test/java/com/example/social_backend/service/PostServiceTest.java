@@ -1,20 +1,31 @@
 package com.example.social_backend.service;
 
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.FeedItemDto;
+import com.example.social_backend.dto.PostView;
 import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.repository.AtomicInsertTemplate;
+import com.example.social_backend.repository.CommentRepository;
 import com.example.social_backend.repository.PostRepository;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.CursorCodec;
 import com.example.social_backend.util.SanitizerUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,11 +36,26 @@ class PostServiceTest {
   @Mock
   private PostRepository postRepository;
 
+  @Mock
+  private CommentRepository commentRepository;
+
   @Mock
   private SanitizerUtil sanitizerUtil;
 
   @Mock
-  private JdbcTemplate jdbcTemplate;
+  private AtomicInsertTemplate atomicInsertTemplate;
+
+  @Mock
+  private WriteBatcher writeBatcher;
+
+  @Mock
+  private SearchIndexRepository searchIndexRepository;
+
+  @Mock
+  private CacheManager cacheManager;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
 
   @InjectMocks
   private PostService postService;
@@ -38,6 +64,9 @@ class PostServiceTest {
   void setUp() {
     MockitoAnnotations.openMocks(this);
 
+    // 批次處理器直接執行寫入
+    when(writeBatcher.submit(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
     // 配置SanitizerUtil模擬
     when(sanitizerUtil.sanitize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
     when(sanitizerUtil.sanitizeUrl(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
@@ -70,6 +99,8 @@ class PostServiceTest {
     verify(sanitizerUtil, times(1)).sanitize(content);
     verify(sanitizerUtil, times(1)).sanitizeUrl(image);
     verify(postRepository, times(1)).save(any(Post.class));
+    verify(searchIndexRepository, times(1)).indexPost(1L, content);
+    verify(eventPublisher, times(1)).publishEvent(new PostChangedEvent(1L, PostChangedEvent.Type.CREATED));
   }
 
   @Test
@@ -112,27 +143,173 @@ class PostServiceTest {
   void getAllPosts_returnsAllPostsSortedByCreatedAtDesc() {
     // 準備
     LocalDateTime now = LocalDateTime.now();
-    Post post1 = new Post(1L, "發文1", "image1.jpg");
+    PostView post1 = new PostView(1L, 1L, "發文1", "image1.jpg", now.minusDays(1));
+    PostView post2 = new PostView(2L, 1L, "發文2", "image2.jpg", now);
+
+    List<PostView> expectedPosts = Arrays.asList(post2, post1); // 按創建時間降序排序
+
+    when(postRepository.findViewsByOrderByCreatedAtDesc()).thenReturn(expectedPosts);
+
+    // 執行
+    List<PostView> result = postService.getAllPosts();
+
+    // 驗證
+    assertEquals(2, result.size());
+    assertEquals(post2, result.get(0)); // 最新的發文應該在前面
+    assertEquals(post1, result.get(1));
+
+    verify(postRepository, times(1)).findViewsByOrderByCreatedAtDesc();
+  }
+
+  @Test
+  void getFeed_firstPageWithMoreResults_returnsNextCursor() {
+    // 準備
+    LocalDateTime now = LocalDateTime.now();
+    Post post3 = new Post(1L, "發文3", null);
+    post3.setPostId(3L);
+    post3.setCreatedAt(now);
+    Post post2 = new Post(1L, "發文2", null);
+    post2.setPostId(2L);
+    post2.setCreatedAt(now.minusMinutes(1));
+    Post post1 = new Post(1L, "發文1", null);
     post1.setPostId(1L);
-    post1.setCreatedAt(now.minusDays(1));
+    post1.setCreatedAt(now.minusMinutes(2));
+
+    when(postRepository.findFeedFirstPage(3)).thenReturn(Arrays.asList(post3, post2, post1));
+
+    // 執行
+    CursorPage<Post> result = postService.getFeed(null, 2);
+
+    // 驗證 - 多取的一筆不應返回，游標應指向本頁最後一筆
+    assertEquals(2, result.getItems().size());
+    assertTrue(result.isHasMore());
+    CursorCodec.Cursor cursor = CursorCodec.decode(result.getNextCursor());
+    assertEquals(post2.getCreatedAt(), cursor.createdAt());
+    assertEquals(2L, cursor.id());
+  }
+
+  @Test
+  void getFeed_withCursor_queriesFromCursorPosition() {
+    // 準備
+    LocalDateTime createdAt = LocalDateTime.now();
+    String cursor = CursorCodec.encode(createdAt, 5L);
+    Post post = new Post(1L, "較舊的發文", null);
+    post.setPostId(4L);
+    post.setCreatedAt(createdAt.minusMinutes(1));
+
+    when(postRepository.findFeedPageBefore(createdAt, 5L, 21)).thenReturn(List.of(post));
+
+    // 執行
+    CursorPage<Post> result = postService.getFeed(cursor, 20);
+
+    // 驗證 - 最後一頁不應返回游標
+    assertEquals(1, result.getItems().size());
+    assertFalse(result.isHasMore());
+    assertNull(result.getNextCursor());
+    verify(postRepository, never()).findFeedFirstPage(anyInt());
+  }
+
+  @Test
+  void getFeed_limitAboveMaximum_isCapped() {
+    // 準備
+    when(postRepository.findFeedFirstPage(anyInt())).thenReturn(List.of());
 
-    Post post2 = new Post(1L, "發文2", "image2.jpg");
+    // 執行
+    postService.getFeed(null, 10000);
+
+    // 驗證
+    verify(postRepository, times(1)).findFeedFirstPage(PostService.MAX_FEED_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void getFeed_invalidCursor_throwsException() {
+    // 執行和驗證
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      postService.getFeed("not-a-cursor", 20);
+    });
+
+    assertEquals("無效的分頁游標", exception.getMessage());
+  }
+
+  @Test
+  void getFeedWithComments_hydratesPageWithSingleGroupedQuery() {
+    // 準備
+    LocalDateTime now = LocalDateTime.now();
+    Post post2 = new Post(1L, "有留言的發文", null);
     post2.setPostId(2L);
     post2.setCreatedAt(now);
+    post2.setCommentCount(5);
+    Post post1 = new Post(1L, "沒有留言的發文", null);
+    post1.setPostId(1L);
+    post1.setCreatedAt(now.minusMinutes(1));
 
-    List<Post> expectedPosts = Arrays.asList(post2, post1); // 按創建時間降序排序
+    CommentRepository.CommentPreviewRow row = previewRow(10L, 2L, "第一則留言", 1L);
 
-    when(postRepository.findAllByOrderByCreatedAtDesc()).thenReturn(expectedPosts);
+    when(postRepository.findFeedFirstPage(21)).thenReturn(Arrays.asList(post2, post1));
+    // 沒有留言的發文不需要查詢預覽
+    when(commentRepository.findPreviewRowsByPostIds(List.of(2L), 1)).thenReturn(List.of(row));
 
     // 執行
-    List<Post> result = postService.getAllPosts();
+    CursorPage<FeedItemDto> result = postService.getFeedWithComments(null, 20, 1);
 
     // 驗證
-    assertEquals(2, result.size());
-    assertEquals(post2, result.get(0)); // 最新的發文應該在前面
-    assertEquals(post1, result.get(1));
+    assertEquals(2, result.getItems().size());
+    FeedItemDto withComments = result.getItems().get(0);
+    assertEquals(2L, withComments.getPostId());
+    assertEquals(5L, withComments.getCommentCount());
+    assertEquals(1, withComments.getComments().size());
+    assertEquals("第一則留言", withComments.getComments().get(0).content());
+
+    FeedItemDto withoutComments = result.getItems().get(1);
+    assertEquals(0L, withoutComments.getCommentCount());
+    assertTrue(withoutComments.getComments().isEmpty());
+
+    verify(commentRepository, times(1)).findPreviewRowsByPostIds(anyCollection(), anyInt());
+    verify(commentRepository, never()).findViewsByPostIdOrderByCreatedAtAsc(anyLong());
+  }
 
-    verify(postRepository, times(1)).findAllByOrderByCreatedAtDesc();
+  @Test
+  void getFeedWithComments_zeroPreviewSize_returnsCountsWithoutCommentQuery() {
+    // 準備
+    Post post = new Post(1L, "發文", null);
+    post.setPostId(1L);
+    post.setCreatedAt(LocalDateTime.now());
+    post.setCommentCount(3);
+
+    when(postRepository.findFeedFirstPage(21)).thenReturn(List.of(post));
+
+    // 執行
+    CursorPage<FeedItemDto> result = postService.getFeedWithComments(null, 20, 0);
+
+    // 驗證 - 留言數量直接取自發文
+    assertEquals(3L, result.getItems().get(0).getCommentCount());
+    assertTrue(result.getItems().get(0).getComments().isEmpty());
+    verify(commentRepository, never()).findPreviewRowsByPostIds(anyCollection(), anyInt());
+  }
+
+  @Test
+  void getFeedWithComments_emptyPage_skipsCommentQuery() {
+    // 準備
+    when(postRepository.findFeedFirstPage(anyInt())).thenReturn(List.of());
+
+    // 執行
+    CursorPage<FeedItemDto> result = postService.getFeedWithComments(null, 20, 3);
+
+    // 驗證
+    assertTrue(result.getItems().isEmpty());
+    verify(commentRepository, never()).findPreviewRowsByPostIds(anyCollection(), anyInt());
+  }
+
+  private CommentRepository.CommentPreviewRow previewRow(Long commentId, Long postId, String content,
+      Long rowNumber) {
+    CommentRepository.CommentPreviewRow row = mock(CommentRepository.CommentPreviewRow.class);
+    when(row.getCommentId()).thenReturn(commentId);
+    when(row.getUserId()).thenReturn(1L);
+    when(row.getPostId()).thenReturn(postId);
+    when(row.getContent()).thenReturn(content);
+    when(row.getCreatedAt()).thenReturn(LocalDateTime.now());
+    when(row.getRowNumber()).thenReturn(rowNumber);
+    return row;
   }
 
   @Test
@@ -146,8 +323,7 @@ class PostServiceTest {
     Long postId = 1L;
     Long commentId = 1L;
 
-    when(jdbcTemplate.update(anyString(), any(), any(), any(), any())).thenReturn(1);
-    when(jdbcTemplate.queryForObject(eq("SELECT last_insert_rowid()"), eq(Long.class))).thenReturn(postId, commentId);
+    when(atomicInsertTemplate.insertAll(anyList())).thenReturn(List.of(postId, commentId));
 
     // 執行
     Map<String, Long> result = postService.createPostAndComment(userId, postContent, postImage, commentContent);
@@ -160,8 +336,14 @@ class PostServiceTest {
     verify(sanitizerUtil, times(1)).sanitize(postContent);
     verify(sanitizerUtil, times(1)).sanitizeUrl(postImage);
     verify(sanitizerUtil, times(1)).sanitize(commentContent);
-    verify(jdbcTemplate, times(2)).update(anyString(), any(), any(), any(), any());
-    verify(jdbcTemplate, times(2)).queryForObject(eq("SELECT last_insert_rowid()"), eq(Long.class));
+    // 驗證 - 兩條插入在同一次原子操作中執行，留言引用發文插入返回的ID
+    ArgumentCaptor<List<AtomicInsertTemplate.Insert>> insertsCaptor = ArgumentCaptor.captor();
+    verify(atomicInsertTemplate, times(1)).insertAll(insertsCaptor.capture());
+    List<AtomicInsertTemplate.Insert> inserts = insertsCaptor.getValue();
+    assertEquals(2, inserts.size());
+    assertTrue(inserts.get(0).sql().contains("RETURNING postid"));
+    assertTrue(inserts.get(1).sql().contains("RETURNING commentid"));
+    assertEquals(postId, inserts.get(1).parameters().apply(List.of(postId))[1]);
   }
 
   @Test
@@ -228,6 +410,8 @@ class PostServiceTest {
     verify(sanitizerUtil, times(1)).sanitize(newContent);
     verify(sanitizerUtil, times(1)).sanitizeUrl(newImage);
     verify(postRepository, times(1)).save(any(Post.class));
+    verify(searchIndexRepository, times(1)).indexPost(postId, newContent);
+    verify(eventPublisher, times(1)).publishEvent(new PostChangedEvent(postId, PostChangedEvent.Type.UPDATED));
   }
 
   @Test
@@ -314,6 +498,8 @@ class PostServiceTest {
     // 驗證
     verify(postRepository, times(1)).findById(postId);
     verify(postRepository, times(1)).delete(existingPost);
+    verify(searchIndexRepository, times(1)).removePost(postId);
+    verify(eventPublisher, times(1)).publishEvent(new PostChangedEvent(postId, PostChangedEvent.Type.DELETED));
   }
 
   @Test
@@ -362,20 +548,15 @@ class PostServiceTest {
     Long userId = 1L;
 
     LocalDateTime now = LocalDateTime.now();
-    Post post1 = new Post(userId, "用戶的發文1", "image1.jpg");
-    post1.setPostId(1L);
-    post1.setCreatedAt(now.minusDays(1));
+    PostView post1 = new PostView(1L, userId, "用戶的發文1", "image1.jpg", now.minusDays(1));
+    PostView post2 = new PostView(2L, userId, "用戶的發文2", "image2.jpg", now);
 
-    Post post2 = new Post(userId, "用戶的發文2", "image2.jpg");
-    post2.setPostId(2L);
-    post2.setCreatedAt(now);
+    List<PostView> expectedPosts = Arrays.asList(post2, post1); // 按創建時間降序排序
 
-    List<Post> expectedPosts = Arrays.asList(post2, post1); // 按創建時間降序排序
-
-    when(postRepository.findByUserIdOrderByCreatedAtDesc(userId)).thenReturn(expectedPosts);
+    when(postRepository.findViewsByUserIdOrderByCreatedAtDesc(userId)).thenReturn(expectedPosts);
 
     // 執行
-    List<Post> result = postService.getPostsByUserId(userId);
+    List<PostView> result = postService.getPostsByUserId(userId);
 
     // 驗證
     assertNotNull(result);
@@ -384,11 +565,11 @@ class PostServiceTest {
     assertEquals(post1, result.get(1));
 
     // 檢查所有返回的發文都屬於指定用戶
-    for (Post post : result) {
-      assertEquals(userId, post.getUserId());
+    for (PostView post : result) {
+      assertEquals(userId, post.userId());
     }
 
-    verify(postRepository, times(1)).findByUserIdOrderByCreatedAtDesc(userId);
+    verify(postRepository, times(1)).findViewsByUserIdOrderByCreatedAtDesc(userId);
   }
 
   @Test
@@ -396,15 +577,15 @@ class PostServiceTest {
     // 準備
     Long userId = 2L; // 沒有發文的用戶
 
-    when(postRepository.findByUserIdOrderByCreatedAtDesc(userId)).thenReturn(List.of());
+    when(postRepository.findViewsByUserIdOrderByCreatedAtDesc(userId)).thenReturn(List.of());
 
     // 執行
-    List<Post> result = postService.getPostsByUserId(userId);
+    List<PostView> result = postService.getPostsByUserId(userId);
 
     // 驗證
     assertNotNull(result);
     assertTrue(result.isEmpty());
-    verify(postRepository, times(1)).findByUserIdOrderByCreatedAtDesc(userId);
+    verify(postRepository, times(1)).findViewsByUserIdOrderByCreatedAtDesc(userId);
   }
 
   @Test
@@ -414,44 +595,37 @@ class PostServiceTest {
     Long userId2 = 2L;
 
     // 第一個用戶的發文
-    Post post1User1 = new Post(userId1, "用戶1的發文1", null);
-    post1User1.setPostId(1L);
-    post1User1.setCreatedAt(LocalDateTime.now().minusDays(1));
-
-    Post post2User1 = new Post(userId1, "用戶1的發文2", null);
-    post2User1.setPostId(2L);
-    post2User1.setCreatedAt(LocalDateTime.now());
+    PostView post1User1 = new PostView(1L, userId1, "用戶1的發文1", null, LocalDateTime.now().minusDays(1));
+    PostView post2User1 = new PostView(2L, userId1, "用戶1的發文2", null, LocalDateTime.now());
 
     // 第二個用戶的發文
-    Post post1User2 = new Post(userId2, "用戶2的發文", null);
-    post1User2.setPostId(3L);
-    post1User2.setCreatedAt(LocalDateTime.now().minusHours(5));
+    PostView post1User2 = new PostView(3L, userId2, "用戶2的發文", null, LocalDateTime.now().minusHours(5));
 
     // 模擬第一個用戶的發文查詢結果
-    List<Post> user1Posts = Arrays.asList(post2User1, post1User1);
-    when(postRepository.findByUserIdOrderByCreatedAtDesc(userId1)).thenReturn(user1Posts);
+    List<PostView> user1Posts = Arrays.asList(post2User1, post1User1);
+    when(postRepository.findViewsByUserIdOrderByCreatedAtDesc(userId1)).thenReturn(user1Posts);
 
     // 模擬第二個用戶的發文查詢結果
-    List<Post> user2Posts = List.of(post1User2);
-    when(postRepository.findByUserIdOrderByCreatedAtDesc(userId2)).thenReturn(user2Posts);
+    List<PostView> user2Posts = List.of(post1User2);
+    when(postRepository.findViewsByUserIdOrderByCreatedAtDesc(userId2)).thenReturn(user2Posts);
 
     // 執行 - 查詢第一個用戶的發文
-    List<Post> resultUser1 = postService.getPostsByUserId(userId1);
+    List<PostView> resultUser1 = postService.getPostsByUserId(userId1);
 
     // 驗證 - 只應返回第一個用戶的發文
     assertEquals(2, resultUser1.size());
-    for (Post post : resultUser1) {
-      assertEquals(userId1, post.getUserId());
+    for (PostView post : resultUser1) {
+      assertEquals(userId1, post.userId());
     }
 
     // 執行 - 查詢第二個用戶的發文
-    List<Post> resultUser2 = postService.getPostsByUserId(userId2);
+    List<PostView> resultUser2 = postService.getPostsByUserId(userId2);
 
     // 驗證 - 只應返回第二個用戶的發文
     assertEquals(1, resultUser2.size());
-    assertEquals(userId2, resultUser2.get(0).getUserId());
+    assertEquals(userId2, resultUser2.get(0).userId());
 
-    verify(postRepository, times(1)).findByUserIdOrderByCreatedAtDesc(userId1);
-    verify(postRepository, times(1)).findByUserIdOrderByCreatedAtDesc(userId2);
+    verify(postRepository, times(1)).findViewsByUserIdOrderByCreatedAtDesc(userId1);
+    verify(postRepository, times(1)).findViewsByUserIdOrderByCreatedAtDesc(userId2);
   }
 }
\ No newline at end of file
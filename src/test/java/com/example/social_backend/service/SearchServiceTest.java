@@ -0,0 +1,230 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.CommentView;
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.repository.SearchIndexRepository;
+import com.example.social_backend.util.SanitizerUtil;
+import db.migration.FullTextSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private SearchIndexRepository searchIndexRepository;
+  private SearchService searchService;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("search.db"), true);
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+        new ClassPathResource("db/migration/V3__add_post_comment_counter.sql"),
+        new ClassPathResource("db/migration/V5__add_full_text_search.sql")).execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    searchIndexRepository = new SearchIndexRepository(jdbcTemplate);
+    searchService = new SearchService(jdbcTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  private long insertPost(String content) {
+    return jdbcTemplate.queryForObject("INSERT INTO post (userid, content, created_at) VALUES (1, ?, ?) "
+        + "RETURNING postid", Long.class, content, new Timestamp(System.currentTimeMillis()));
+  }
+
+  private long createPost(String content) {
+    long postId = insertPost(content);
+    searchIndexRepository.indexPost(postId, content);
+    return postId;
+  }
+
+  private long createComment(long postId, String content) {
+    long commentId = jdbcTemplate.queryForObject("INSERT INTO comment (userid, postid, content, created_at) "
+        + "VALUES (2, ?, ?, ?) RETURNING commentid", Long.class, postId, content,
+        new Timestamp(System.currentTimeMillis()));
+    searchIndexRepository.indexComment(commentId, content);
+    return commentId;
+  }
+
+  private List<Long> postIds(CursorPage<PostView> page) {
+    return page.getItems().stream().map(PostView::postId).toList();
+  }
+
+  @Test
+  void searchPosts_chineseWord_matchesAdjacentCharactersOnly() {
+    // 準備
+    long match = createPost("週末去吃台灣小吃");
+    createPost("台北的灣區");
+
+    // 執行
+    CursorPage<PostView> page = searchService.searchPosts("台灣", null, 20);
+
+    // 驗證 - 兩個字分開出現的發文不符合
+    assertEquals(List.of(match), postIds(page));
+    assertEquals("週末去吃台灣小吃", page.getItems().get(0).content());
+  }
+
+  @Test
+  void searchPosts_multipleTerms_requiresAllTerms() {
+    // 準備
+    long both = createPost("台灣 美食 推薦");
+    createPost("台灣 風景");
+
+    // 執行和驗證
+    assertEquals(List.of(both), postIds(searchService.searchPosts("台灣 美食", null, 20)));
+  }
+
+  @Test
+  void searchPosts_prefixQuery_matchesWordStart() {
+    // 準備
+    long spring = createPost("Learning <b>Spring</b> Boot");
+    createPost("Summer vacation");
+
+    // 執行和驗證 - 不分大小寫，HTML標籤不影響比對
+    assertEquals(List.of(spring), postIds(searchService.searchPosts("spri*", null, 20)));
+    assertTrue(searchService.searchPosts("spri", null, 20).getItems().isEmpty());
+    assertTrue(searchService.searchPosts("b", null, 20).getItems().isEmpty());
+  }
+
+  @Test
+  void searchPosts_ranksByRelevance() {
+    // 準備
+    long once = createPost("咖啡 以及 很多 其他 不相關 的 內容 與 更多 文字");
+    long many = createPost("咖啡 咖啡 咖啡");
+
+    // 執行和驗證 - 出現次數多且內容短的排在前面
+    assertEquals(List.of(many, once), postIds(searchService.searchPosts("咖啡", null, 20)));
+  }
+
+  @Test
+  void searchPosts_pagesWithCursor() {
+    // 準備
+    for (int i = 0; i < 5; i++) {
+      createPost("分頁 測試 " + i);
+    }
+
+    // 執行
+    CursorPage<PostView> first = searchService.searchPosts("分頁", null, 2);
+    CursorPage<PostView> second = searchService.searchPosts("分頁", first.getNextCursor(), 2);
+    CursorPage<PostView> third = searchService.searchPosts("分頁", second.getNextCursor(), 2);
+
+    // 驗證
+    assertEquals(2, first.getItems().size());
+    assertEquals(2, second.getItems().size());
+    assertEquals(1, third.getItems().size());
+    assertNull(third.getNextCursor());
+    assertEquals(5, List.of(first, second, third).stream()
+        .flatMap(page -> postIds(page).stream()).distinct().count());
+  }
+
+  @Test
+  void searchPosts_queryWithFtsSyntax_isTreatedAsText() {
+    // 準備
+    long postId = createPost("NEAR the end");
+
+    // 執行和驗證 - 使用者輸入的運算子及引號不會造成語法錯誤
+    assertEquals(List.of(postId), postIds(searchService.searchPosts("\"NEAR(", null, 20)));
+    assertTrue(searchService.searchPosts("end OR", null, 20).getItems().isEmpty());
+  }
+
+  @Test
+  void searchPosts_invalidInput_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> searchService.searchPosts("   ", null, 20));
+    assertThrows(IllegalArgumentException.class, () -> searchService.searchPosts("***", null, 20));
+    assertThrows(IllegalArgumentException.class, () -> searchService.searchPosts("咖啡", "not-a-cursor", 20));
+  }
+
+  @Test
+  void searchComments_afterPostRemoved_excludesItsComments() {
+    // 準備
+    long postId = createPost("發文");
+    long commentId = createComment(postId, "這家拉麵很好吃");
+    assertEquals(List.of(commentId), searchService.searchComments("拉麵", null, 20).getItems().stream()
+        .map(CommentView::commentId).toList());
+
+    // 執行
+    searchIndexRepository.removePost(postId);
+
+    // 驗證
+    assertTrue(searchService.searchComments("拉麵", null, 20).getItems().isEmpty());
+    assertTrue(searchService.searchPosts("發文", null, 20).getItems().isEmpty());
+  }
+
+  @Test
+  void indexPost_update_replacesPreviousTerms() {
+    // 準備
+    long postId = createPost("舊的內容");
+
+    // 執行
+    searchIndexRepository.indexPost(postId, "新的內容");
+
+    // 驗證
+    assertTrue(searchService.searchPosts("舊的", null, 20).getItems().isEmpty());
+    assertEquals(List.of(postId), postIds(searchService.searchPosts("新的", null, 20)));
+  }
+
+  @Test
+  void searchPosts_sanitizedContent_matchesOriginalText() {
+    // 準備 - 以淨化器實際輸出的內容建立索引（@ + = " ` 會被轉為數字字元參照）
+    long postId = createPost(new SanitizerUtil(10000, 1000).sanitize("mail me@x a+b c=d \"q\" `t`"));
+
+    // 執行和驗證
+    assertEquals(List.of(postId), postIds(searchService.searchPosts("me@x", null, 20)));
+    assertEquals(List.of(postId), postIds(searchService.searchPosts("a+b", null, 20)));
+    assertEquals(List.of(postId), postIds(searchService.searchPosts("q", null, 20)));
+    // 參照中的數字不會被索引
+    assertTrue(searchService.searchPosts("64", null, 20).getItems().isEmpty());
+    assertTrue(searchService.searchPosts("43", null, 20).getItems().isEmpty());
+  }
+
+  @Test
+  void rebuild_indexesExistingRowsEvenWhenIndexNotEmpty() {
+    // 準備 - 遷移前已有一筆寫入索引，另一筆尚未索引
+    long indexedPost = createPost("升級後的發文");
+    long legacyPost = insertPost("升級前的發文");
+    long commentId = createComment(legacyPost, "升級前的留言");
+
+    // 執行 - 重複執行不會產生重複的索引
+    FullTextSearchIndex.rebuild(jdbcTemplate);
+    long indexed = FullTextSearchIndex.rebuild(jdbcTemplate);
+
+    // 驗證
+    assertEquals(3, indexed);
+    List<Long> found = postIds(searchService.searchPosts("升級", null, 20));
+    assertEquals(2, found.size());
+    assertTrue(found.containsAll(List.of(indexedPost, legacyPost)));
+    assertEquals(List.of(commentId),
+        searchService.searchComments("留言", null, 20).getItems().stream().map(CommentView::commentId).toList());
+  }
+
+  @Test
+  void searchQueries_rankInsideFullTextIndex() {
+    for (String sql : List.of(SearchService.POST_SEARCH_SQL, SearchService.COMMENT_SEARCH_SQL)) {
+      List<String> plan = jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql, (rs, rowNum) -> rs.getString("detail"),
+          "\"x\"", 10, 0);
+      // 排序由 FTS5 依 BM25 完成，不需要額外的臨時排序
+      assertTrue(plan.stream().noneMatch(detail -> detail.contains("TEMP B-TREE")), plan.toString());
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.CursorPage;
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.event.PostChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private TimelineService timelineService;
+  private FollowService followService;
+  private long clock = 1_700_000_000_000L;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("timeline.db"), true);
+    new ResourceDatabasePopulator(
+        new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+        new ClassPathResource("db/migration/V2__add_secondary_indexes.sql"),
+        new ClassPathResource("db/migration/V6__add_follow_graph_and_home_timeline.sql")).execute(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    timelineService = new TimelineService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    followService = new FollowService(jdbcTemplate, timelineService);
+    for (long userId = 1; userId <= 4; userId++) {
+      jdbcTemplate.update("INSERT INTO user (userid, user_name, password) VALUES (?, ?, 'x')", userId, "user" + userId);
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  /**
+   * 建立發文並擴散，每篇發文的創建時間依序遞增
+   */
+  private long publish(long userId, String content) {
+    long postId = jdbcTemplate.queryForObject("INSERT INTO post (userid, content, created_at) VALUES (?, ?, ?) "
+        + "RETURNING postid", Long.class, userId, content, new Timestamp(clock += 1000));
+    timelineService.fanOut(postId);
+    return postId;
+  }
+
+  private List<Long> postIds(CursorPage<PostView> page) {
+    return page.getItems().stream().map(PostView::postId).toList();
+  }
+
+  private int followerCount(long userId) {
+    return jdbcTemplate.queryForObject("SELECT follower_count FROM user WHERE userid = ?", Integer.class, userId);
+  }
+
+  @Test
+  void fanOut_smallAccount_writesToAuthorAndFollowers() {
+    // 準備
+    followService.follow(2L, 1L);
+    followService.follow(3L, 1L);
+
+    // 執行
+    long postId = publish(1L, "hello");
+
+    // 驗證 - 作者及兩位粉絲的時間軸都有此發文，未追蹤者沒有
+    assertEquals(List.of(postId), postIds(timelineService.getHomeTimeline(1L, null, 20)));
+    assertEquals(List.of(postId), postIds(timelineService.getHomeTimeline(2L, null, 20)));
+    assertEquals(List.of(postId), postIds(timelineService.getHomeTimeline(3L, null, 20)));
+    assertTrue(timelineService.getHomeTimeline(4L, null, 20).getItems().isEmpty());
+  }
+
+  @Test
+  void fanOut_largeAccount_onlyAuthorEntryAndMergedOnRead() {
+    // 準備 - 粉絲數超過 1 的帳號不擴散
+    ReflectionTestUtils.setField(timelineService, "maxFanoutFollowers", 1L);
+    followService.follow(2L, 1L);
+    followService.follow(3L, 1L);
+    followService.follow(2L, 3L);
+
+    // 執行
+    long celebrityPost = publish(1L, "from celebrity");
+    long friendPost = publish(3L, "from friend");
+    long ownPost = publish(2L, "my own");
+
+    // 驗證 - 大帳號的發文只寫入作者自己的時間軸
+    assertEquals(List.of(1L), jdbcTemplate.queryForList(
+        "SELECT userid FROM home_timeline WHERE postid = ?", Long.class, celebrityPost));
+    // 讀取時合併，按時間降序
+    assertEquals(List.of(ownPost, friendPost, celebrityPost), postIds(timelineService.getHomeTimeline(2L, null, 20)));
+  }
+
+  @Test
+  void getHomeTimeline_largeAccountBackfilled_noDuplicates() {
+    // 準備 - 追蹤時回填的發文同時也會從大帳號的發文索引讀到
+    ReflectionTestUtils.setField(timelineService, "maxFanoutFollowers", 1L);
+    followService.follow(3L, 1L);
+    followService.follow(4L, 1L);
+    long first = publish(1L, "first");
+    long second = publish(1L, "second");
+    followService.follow(2L, 1L);
+
+    // 執行
+    CursorPage<PostView> page = timelineService.getHomeTimeline(2L, null, 20);
+
+    // 驗證
+    assertEquals(List.of(second, first), postIds(page));
+  }
+
+  @Test
+  void getHomeTimeline_pagesThroughMergedSources() {
+    // 準備 - 一般帳號與大帳號交錯發文
+    ReflectionTestUtils.setField(timelineService, "maxFanoutFollowers", 1L);
+    followService.follow(3L, 1L);
+    followService.follow(2L, 1L);
+    followService.follow(2L, 4L);
+    List<Long> expected = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      expected.add(0, publish(i % 2 == 0 ? 1L : 4L, "post " + i));
+    }
+
+    // 執行
+    List<Long> collected = new ArrayList<>();
+    String cursor = null;
+    do {
+      CursorPage<PostView> page = timelineService.getHomeTimeline(2L, cursor, 3);
+      assertTrue(page.getItems().size() <= 3);
+      collected.addAll(postIds(page));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    // 驗證 - 每篇發文恰好出現一次，順序為最新的在前
+    assertEquals(expected, collected);
+  }
+
+  @Test
+  void follow_backfillsRecentPosts_andUnfollowRemovesThem() {
+    // 準備
+    long earlier = publish(1L, "before follow");
+    long ownPost = publish(2L, "mine");
+
+    // 執行 & 驗證 - 追蹤後看到對方之前的發文
+    assertTrue(followService.follow(2L, 1L));
+    assertEquals(List.of(ownPost, earlier), postIds(timelineService.getHomeTimeline(2L, null, 20)));
+    assertEquals(1, followerCount(1L));
+
+    // 執行 & 驗證 - 取消追蹤後只剩自己的發文
+    assertTrue(followService.unfollow(2L, 1L));
+    assertEquals(List.of(ownPost), postIds(timelineService.getHomeTimeline(2L, null, 20)));
+    assertEquals(0, followerCount(1L));
+  }
+
+  @Test
+  void follow_repeated_countsOnce() {
+    // 執行
+    assertTrue(followService.follow(2L, 1L));
+    assertFalse(followService.follow(2L, 1L));
+    assertFalse(followService.unfollow(3L, 1L));
+
+    // 驗證
+    assertEquals(1, followerCount(1L));
+  }
+
+  @Test
+  void follow_selfOrUnknownUser_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> followService.follow(2L, 2L));
+    assertThrows(IllegalArgumentException.class, () -> followService.follow(2L, 99L));
+  }
+
+  @Test
+  void removePost_deletesFromAllTimelines() {
+    // 準備
+    followService.follow(2L, 1L);
+    long postId = publish(1L, "to be deleted");
+
+    // 執行
+    jdbcTemplate.update("DELETE FROM post WHERE postid = ?", postId);
+    timelineService.removePost(postId);
+
+    // 驗證
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM home_timeline", Integer.class));
+  }
+
+  @Test
+  void onPostChanged_queueFull_dropsUpdateInsteadOfRunningOnCaller() throws Exception {
+    // 準備 - 佇列容量為1，擴散執行緒被佔用
+    ReflectionTestUtils.setField(timelineService, "queueCapacity", 1);
+    ReflectionTestUtils.setField(timelineService, "enqueueTimeoutMillis", 50L);
+    timelineService.start();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch busy = new CountDownLatch(1);
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(timelineService, "fanoutExecutor");
+    executor.execute(() -> {
+      busy.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    busy.await();
+    followService.follow(2L, 1L);
+    long queued = jdbcTemplate.queryForObject("INSERT INTO post (userid, content, created_at) "
+        + "VALUES (1, 'queued', ?) RETURNING postid", Long.class, new Timestamp(clock += 1000));
+    long dropped = jdbcTemplate.queryForObject("INSERT INTO post (userid, content, created_at) "
+        + "VALUES (1, 'dropped', ?) RETURNING postid", Long.class, new Timestamp(clock += 1000));
+
+    // 執行
+    timelineService.onPostChanged(new PostChangedEvent(queued, PostChangedEvent.Type.CREATED));
+    timelineService.onPostChanged(new PostChangedEvent(dropped, PostChangedEvent.Type.CREATED));
+
+    // 驗證 - 發佈事件的執行緒不會自己擴散
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM home_timeline", Integer.class));
+    release.countDown();
+    timelineService.stop();
+    assertEquals(List.of(queued), postIds(timelineService.getHomeTimeline(2L, null, 10)));
+  }
+}
@@ -0,0 +1,250 @@
+package com.example.social_backend.service;
+
+import com.example.social_backend.dto.PostView;
+import com.example.social_backend.dto.TrendingPost;
+import com.example.social_backend.entity.Post;
+import com.example.social_backend.event.PostChangedEvent;
+import com.example.social_backend.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TrendingServiceTest {
+
+  private static final long HOUR = 3_600_000L;
+
+  @TempDir
+  Path tempDir;
+
+  private ObjectMapper objectMapper;
+  private PostRepository postRepository;
+  private TrendingService trendingService;
+  private long now;
+
+  @BeforeEach
+  void setUp() {
+    objectMapper = new ObjectMapper().findAndRegisterModules();
+    postRepository = mock(PostRepository.class);
+    trendingService = newService();
+    now = System.currentTimeMillis();
+  }
+
+  private TrendingService newService() {
+    TrendingService service = new TrendingService(objectMapper, postRepository);
+    ReflectionTestUtils.setField(service, "halfLife", HOUR);
+    ReflectionTestUtils.setField(service, "topK", 3);
+    ReflectionTestUtils.setField(service, "capacity", 5);
+    ReflectionTestUtils.setField(service, "snapshotPath", tempDir.resolve("trending.json").toString());
+    return service;
+  }
+
+  private static PostView post(long postId) {
+    return new PostView(postId, 1L, "發文 " + postId, null, LocalDateTime.of(2024, 1, 1, 0, 0));
+  }
+
+  private static Post entity(long postId, String content) {
+    Post post = new Post(1L, content, null);
+    post.setPostId(postId);
+    return post;
+  }
+
+  private static List<Long> postIds(List<TrendingPost> trending) {
+    return trending.stream().map(TrendingPost::postId).toList();
+  }
+
+  @Test
+  void getTrending_ordersByWeightedScore() {
+    // 準備 - 一則留言（權重5）勝過三次瀏覽
+    trendingService.record(post(1L), 1, now);
+    trendingService.record(post(1L), 1, now);
+    trendingService.record(post(1L), 1, now);
+    trendingService.record(post(2L), 5, now);
+    trendingService.record(post(3L), 1, now);
+
+    // 執行
+    List<TrendingPost> trending = trendingService.getTrending(10, now);
+
+    // 驗證 - 筆數限制在 top-k 以內
+    assertEquals(List.of(2L, 1L, 3L), postIds(trending));
+    assertEquals(5.0, trending.get(0).score(), 1e-9);
+    assertEquals(3.0, trending.get(1).score(), 1e-9);
+  }
+
+  @Test
+  void getTrending_olderEngagementDecaysByHalfLife() {
+    // 準備 - 兩小時前的 4 分已衰減為 1 分，不及剛才的 2 分
+    trendingService.record(post(1L), 4, now - 2 * HOUR);
+    trendingService.record(post(2L), 2, now);
+
+    // 執行
+    List<TrendingPost> trending = trendingService.getTrending(10, now);
+
+    // 驗證
+    assertEquals(List.of(2L, 1L), postIds(trending));
+    assertEquals(1.0, trending.get(1).score(), 1e-9);
+    // 再過一小時，所有分數一起減半
+    assertEquals(1.0, trendingService.getTrending(10, now + HOUR).get(0).score(), 1e-9);
+  }
+
+  @Test
+  void record_overCapacity_evictsLowestScore() {
+    // 準備
+    for (long postId = 1; postId <= 5; postId++) {
+      trendingService.record(post(postId), postId, now);
+    }
+
+    // 執行 - 第六篇發文擠掉分數最低的發文
+    trendingService.record(post(6L), 10, now);
+    trendingService.record(post(1L), 3, now);
+
+    // 驗證 - 發文1被淘汰後重新從 3 分開始計算
+    ReflectionTestUtils.setField(trendingService, "topK", 10);
+    assertEquals(List.of(6L, 5L, 4L, 3L, 1L), postIds(trendingService.getTrending(10, now)));
+  }
+
+  @Test
+  void record_farFutureTimestamp_rebasesWithoutOverflow() {
+    // 準備 - 經過一千個半衰期，前向衰減的指數會超過 double 的範圍
+    trendingService.record(post(1L), 1, now);
+    long later = now + 1000 * HOUR;
+
+    // 執行
+    trendingService.record(post(2L), 1, later);
+
+    // 驗證
+    List<TrendingPost> trending = trendingService.getTrending(10, later);
+    assertEquals(List.of(2L, 1L), postIds(trending));
+    assertEquals(1.0, trending.get(0).score(), 1e-9);
+    assertTrue(Double.isFinite(trending.get(1).score()));
+  }
+
+  @Test
+  void refreshAndDelete_updateTrackedPosts() {
+    // 準備
+    trendingService.record(post(1L), 2, now);
+    trendingService.record(post(2L), 1, now);
+    Post updated = new Post(1L, "已編輯", null);
+    updated.setPostId(1L);
+
+    // 執行
+    trendingService.refresh(updated);
+    trendingService.onPostChanged(new PostChangedEvent(2L, PostChangedEvent.Type.DELETED));
+
+    // 驗證
+    List<TrendingPost> trending = trendingService.getTrending(10, now);
+    assertEquals(List.of(1L), postIds(trending));
+    assertEquals("已編輯", trending.get(0).content());
+    assertEquals(2.0, trending.get(0).score(), 1e-9);
+  }
+
+  @Test
+  void record_afterDelete_ignoresStaleViewUntilIdReused() {
+    // 準備 - 瀏覽請求在刪除前載入了發文
+    trendingService.record(post(1L), 1, now);
+    trendingService.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.DELETED));
+
+    // 執行 - 刪除後才記錄瀏覽
+    trendingService.record(post(1L), 1, now);
+
+    // 驗證
+    assertTrue(trendingService.getTrending(10, now).isEmpty());
+
+    // 執行 - 新發文重用了同一ID
+    trendingService.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.CREATED));
+    trendingService.record(post(1L), 1, now);
+
+    // 驗證
+    assertEquals(List.of(1L), postIds(trendingService.getTrending(10, now)));
+  }
+
+  @Test
+  void recordView_accumulatesUntilRankingIsRead() {
+    // 執行
+    for (int i = 0; i < 3; i++) {
+      trendingService.recordView(entity(1L, "發文 1"));
+    }
+    trendingService.recordView(entity(2L, "發文 2"));
+
+    // 驗證 - 讀取排行時併入累計的瀏覽
+    List<TrendingPost> trending = trendingService.getTrending(10, now);
+    assertEquals(List.of(1L, 2L), postIds(trending));
+    assertEquals(3.0, trending.get(0).score(), 1e-9);
+    assertEquals(1.0, trending.get(1).score(), 1e-9);
+  }
+
+  @Test
+  void recordView_loadedBeforeDelete_isIgnored() {
+    // 準備
+    trendingService.recordView(entity(1L, "發文 1"));
+
+    // 執行 - 刪除後才記錄刪除前載入的發文的瀏覽
+    trendingService.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.DELETED));
+    trendingService.recordView(entity(1L, "發文 1"));
+
+    // 驗證
+    assertTrue(trendingService.getTrending(10, now).isEmpty());
+  }
+
+  @Test
+  void onPostChanged_updated_refreshesOnlyTrackedPostsFromCommittedData() {
+    // 準備
+    trendingService.record(post(1L), 2, now);
+    trendingService.recordView(entity(2L, "發文 2"));
+    when(postRepository.findById(1L)).thenReturn(Optional.of(entity(1L, "已編輯 1")));
+    when(postRepository.findById(2L)).thenReturn(Optional.of(entity(2L, "已編輯 2")));
+
+    // 執行
+    trendingService.onPostChanged(new PostChangedEvent(1L, PostChangedEvent.Type.UPDATED));
+    trendingService.onPostChanged(new PostChangedEvent(2L, PostChangedEvent.Type.UPDATED));
+    trendingService.onPostChanged(new PostChangedEvent(3L, PostChangedEvent.Type.UPDATED));
+
+    // 驗證 - 不在排行中的發文不查詢資料庫，更新前載入的瀏覽不會覆蓋新內容
+    List<TrendingPost> trending = trendingService.getTrending(10, now);
+    assertEquals(List.of("已編輯 1", "已編輯 2"), trending.stream().map(TrendingPost::content).toList());
+    verify(postRepository, never()).findById(3L);
+    verify(postRepository, times(2)).findById(any());
+  }
+
+  @Test
+  void snapshot_restoresRankingAfterRestart() throws Exception {
+    // 準備
+    trendingService.record(post(1L), 1, now);
+    trendingService.record(post(2L), 5, now);
+    trendingService.saveSnapshot();
+
+    // 執行
+    TrendingService restarted = newService();
+    restarted.loadSnapshot();
+
+    // 驗證
+    List<TrendingPost> trending = restarted.getTrending(10, now);
+    assertEquals(List.of(2L, 1L), postIds(trending));
+    assertEquals(5.0, trending.get(0).score(), 1e-9);
+    assertEquals("發文 2", trending.get(0).content());
+    assertFalse(Files.exists(tempDir.resolve("trending.json.tmp")));
+  }
+
+  @Test
+  void loadSnapshot_corruptFile_startsEmpty() throws Exception {
+    // 準備
+    Files.writeString(tempDir.resolve("trending.json"), "{not json");
+
+    // 執行
+    trendingService.loadSnapshot();
+
+    // 驗證
+    assertTrue(trendingService.getTrending(10, now).isEmpty());
+  }
+}
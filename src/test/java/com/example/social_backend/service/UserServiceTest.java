@@ -1,5 +1,6 @@
 package com.example.social_backend.service;
 
+import com.example.social_backend.config.PasswordEncoderConfig;
 import com.example.social_backend.entity.User;
 import com.example.social_backend.repository.UserRepository;
 import com.example.social_backend.util.JwtUtil;
@@ -9,8 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -30,6 +34,11 @@ class UserServiceTest {
   @Mock
   private SanitizerUtil sanitizerUtil;
 
+  private final PasswordEncoder passwordEncoder = new PasswordEncoderConfig().passwordEncoder();
+
+  @Spy
+  private PasswordHashingService passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 16);
+
   @InjectMocks
   private UserService userService;
 
@@ -171,4 +180,94 @@ class UserServiceTest {
     verify(userRepository, times(1)).findByPhoneNumber(phoneNumber);
     verify(jwtUtil, never()).generateToken(anyLong());
   }
-}
\ No newline at end of file
+
+  @Test
+  void loginUser_lowerCostHash_rehashesWithConfiguredCost() {
+    // 準備 - 以較低成本因子雜湊的舊密碼
+    String phoneNumber = "1234567890";
+    String password = "password123";
+    User user = new User();
+    user.setUserId(1L);
+    user.setPhoneNumber(phoneNumber);
+    user.setPassword(new BCryptPasswordEncoder(4).encode(password));
+
+    when(userRepository.findByPhoneNumber(phoneNumber)).thenReturn(Optional.of(user));
+    when(jwtUtil.generateToken(1L)).thenReturn("jwt.token.here");
+
+    // 執行
+    userService.loginUser(phoneNumber, password);
+
+    // 驗證 - 以目前設定的成本因子重新雜湊並保存
+    assertTrue(user.getPassword().startsWith("{bcrypt}$2a$10$"));
+    assertTrue(passwordEncoder.matches(password, user.getPassword()));
+    verify(userRepository, times(1)).save(user);
+  }
+
+  @Test
+  void loginUser_legacyPlaintextPassword_rehashes() {
+    // 準備
+    String phoneNumber = "1234567890";
+    String password = "password123";
+    User user = new User();
+    user.setUserId(1L);
+    user.setPhoneNumber(phoneNumber);
+    user.setPassword(password);
+
+    when(userRepository.findByPhoneNumber(phoneNumber)).thenReturn(Optional.of(user));
+    when(jwtUtil.generateToken(1L)).thenReturn("jwt.token.here");
+
+    // 執行
+    String result = userService.loginUser(phoneNumber, password);
+
+    // 驗證 - 登入成功且明文密碼被替換為雜湊
+    assertEquals("jwt.token.here", result);
+    assertNotEquals(password, user.getPassword());
+    assertTrue(passwordEncoder.matches(password, user.getPassword()));
+    verify(userRepository, times(1)).save(user);
+  }
+
+  @Test
+  void loginUser_currentCostHash_doesNotRehash() {
+    // 準備
+    String phoneNumber = "1234567890";
+    String password = "password123";
+    String encryptedPassword = passwordEncoder.encode(password);
+    User user = new User();
+    user.setUserId(1L);
+    user.setPhoneNumber(phoneNumber);
+    user.setPassword(encryptedPassword);
+
+    when(userRepository.findByPhoneNumber(phoneNumber)).thenReturn(Optional.of(user));
+
+    // 執行
+    userService.loginUser(phoneNumber, password);
+
+    // 驗證
+    assertEquals(encryptedPassword, user.getPassword());
+    verify(userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  void loginUser_otherAlgorithmHash_rehashesWithConfiguredAlgorithm() {
+    // 準備 - 以 PBKDF2 雜湊的密碼，目前設定為 BCrypt
+    String phoneNumber = "1234567890";
+    String password = "password123";
+    User user = new User();
+    user.setUserId(1L);
+    user.setPhoneNumber(phoneNumber);
+    PasswordEncoderConfig pbkdf2Config = new PasswordEncoderConfig();
+    ReflectionTestUtils.setField(pbkdf2Config, "algorithm", "pbkdf2");
+    user.setPassword(pbkdf2Config.passwordEncoder().encode(password));
+
+    when(userRepository.findByPhoneNumber(phoneNumber)).thenReturn(Optional.of(user));
+    when(jwtUtil.generateToken(1L)).thenReturn("jwt.token.here");
+
+    // 執行
+    userService.loginUser(phoneNumber, password);
+
+    // 驗證
+    assertTrue(user.getPassword().startsWith("{bcrypt}"));
+    assertTrue(passwordEncoder.matches(password, user.getPassword()));
+    verify(userRepository, times(1)).save(user);
+  }
+}
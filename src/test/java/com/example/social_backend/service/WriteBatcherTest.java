@@ -0,0 +1,108 @@
+package com.example.social_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WriteBatcherTest {
+
+  private PlatformTransactionManager transactionManager;
+  private WriteBatcher writeBatcher;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    writeBatcher = new WriteBatcher(transactionManager);
+    // 放寬等待時間，讓同時送出的寫入確定落在同一批次
+    ReflectionTestUtils.setField(writeBatcher, "maxWaitMillis", 200L);
+    writeBatcher.start();
+    executor = Executors.newFixedThreadPool(16);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    writeBatcher.stop();
+  }
+
+  @Test
+  void submit_concurrentWrites_shareOneCommit() throws Exception {
+    // 準備
+    AtomicInteger ids = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return writeBatcher.submit(ids::incrementAndGet);
+      }));
+    }
+
+    // 執行
+    start.countDown();
+    List<Integer> results = new ArrayList<>();
+    for (Future<Integer> future : futures) {
+      results.add(future.get());
+    }
+
+    // 驗證 - 每個呼叫者都得到自己的結果，提交次數遠少於寫入筆數
+    assertEquals(16, results.stream().distinct().count());
+    verify(transactionManager, atMost(4)).commit(any());
+  }
+
+  @Test
+  void submit_failingWriteInBatch_onlyFailsThatCaller() throws Exception {
+    // 準備
+    CountDownLatch start = new CountDownLatch(1);
+    Future<String> ok = executor.submit(() -> {
+      start.await();
+      return writeBatcher.submit(() -> "ok");
+    });
+    Future<String> failing = executor.submit(() -> {
+      start.await();
+      return writeBatcher.submit(() -> {
+        throw new IllegalArgumentException("寫入失敗");
+      });
+    });
+
+    // 執行
+    start.countDown();
+
+    // 驗證
+    assertEquals("ok", ok.get());
+    Exception exception = assertThrows(Exception.class, failing::get);
+    assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    assertEquals("寫入失敗", exception.getCause().getMessage());
+  }
+
+  @Test
+  void submit_insideExistingTransaction_runsInline() {
+    // 準備 - 模擬呼叫者已在事務中
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    Thread caller = Thread.currentThread();
+    try {
+      // 執行 & 驗證 - 在呼叫者執行緒中執行
+      assertEquals(caller, writeBatcher.submit(Thread::currentThread));
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.social_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+  @Test
+  void encodeAndDecode_roundTripsPosition() {
+    // 準備
+    LocalDateTime createdAt = LocalDateTime.of(2025, 5, 7, 12, 34, 56, 789_000_000);
+
+    // 執行
+    String cursor = CursorCodec.encode(createdAt, 42L);
+    CursorCodec.Cursor decoded = CursorCodec.decode(cursor);
+
+    // 驗證
+    assertEquals(createdAt, decoded.createdAt());
+    assertEquals(42L, decoded.id());
+  }
+
+  @Test
+  void encode_producesUrlSafeToken() {
+    // 執行
+    String cursor = CursorCodec.encode(LocalDateTime.now(), 1L);
+
+    // 驗證 - 游標可直接放在查詢字串中
+    assertFalse(cursor.contains("+"));
+    assertFalse(cursor.contains("/"));
+    assertFalse(cursor.contains("="));
+  }
+
+  @Test
+  void decode_malformedCursor_throwsException() {
+    // 執行和驗證
+    assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("%%%"));
+    assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("bm8tc2VwYXJhdG9y"));
+    assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(
+        CursorCodec.encode(LocalDateTime.now(), 1L).substring(4)));
+  }
+}
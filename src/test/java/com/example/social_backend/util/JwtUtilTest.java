@@ -1,8 +1,8 @@
 package com.example.social_backend.util;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 
@@ -17,10 +17,7 @@ class JwtUtilTest {
 
   @BeforeEach
   void setUp() {
-    jwtUtil = new JwtUtil();
-    // 使用反射設置私有字段，模擬配置文件中的值
-    ReflectionTestUtils.setField(jwtUtil, "configSecret", testSecret);
-    ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", testExpiration);
+    jwtUtil = new JwtUtil(testSecret, testExpiration, 10000);
   }
 
   @Test
@@ -48,9 +45,7 @@ class JwtUtilTest {
   @Test
   void validateToken_expiredToken_returnsFalse() throws Exception {
     // 準備 - 創建一個帶有負的過期時間的JwtUtil實例
-    JwtUtil expiredJwtUtil = new JwtUtil();
-    ReflectionTestUtils.setField(expiredJwtUtil, "configSecret", testSecret);
-    ReflectionTestUtils.setField(expiredJwtUtil, "jwtExpiration", -10000); // 負的過期時間，使令牌立即過期
+    JwtUtil expiredJwtUtil = new JwtUtil(testSecret, -10000, 10000); // 負的過期時間，使令牌立即過期
 
     // 執行 - 生成一個已過期的令牌
     String expiredToken = expiredJwtUtil.generateToken(userId);
@@ -122,4 +117,45 @@ class JwtUtilTest {
     long expectedExpiration = now + testExpiration;
     assertTrue(Math.abs(expiration.getTime() - expectedExpiration) < 1000);
   }
-}
\ No newline at end of file
+
+  @Test
+  void verifyToken_repeatedVerification_servedFromCache() {
+    // 準備
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    jwtUtil.bindTo(registry);
+    String token = jwtUtil.generateToken(userId);
+
+    // 執行 - 模擬同一請求內及後續請求多次驗證同一令牌
+    jwtUtil.extractUserId(token);
+    jwtUtil.validateToken(token);
+    jwtUtil.validateTokenAndGetUserId(token);
+
+    // 驗證 - 只有第一次需要解析並驗證簽名
+    assertEquals(1, registry.get("cache.gets").tags("cache", "jwt-verified-tokens", "result", "miss")
+        .functionCounter().count());
+    assertEquals(2, registry.get("cache.gets").tags("cache", "jwt-verified-tokens", "result", "hit")
+        .functionCounter().count());
+  }
+
+  @Test
+  void verifyToken_tamperedToken_isRejectedEvenAfterValidTokenCached() {
+    // 準備
+    String token = jwtUtil.generateToken(userId);
+    jwtUtil.verifyToken(token);
+    String tamperedToken = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    // 執行和驗證
+    assertFalse(jwtUtil.validateToken(tamperedToken));
+    assertTrue(jwtUtil.validateToken(token));
+  }
+
+  @Test
+  void verifyToken_tokenFromAnotherInstance_isRejected() {
+    // 準備 - 每個實例都有自己的實例密鑰
+    JwtUtil otherJwtUtil = new JwtUtil(testSecret, testExpiration, 10000);
+    String token = otherJwtUtil.generateToken(userId);
+
+    // 執行和驗證
+    assertFalse(jwtUtil.validateToken(token));
+  }
+}
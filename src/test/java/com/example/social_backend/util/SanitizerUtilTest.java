@@ -1,8 +1,13 @@
 package com.example.social_backend.util;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SanitizerUtilTest {
@@ -11,7 +16,7 @@ class SanitizerUtilTest {
 
   @BeforeEach
   void setUp() {
-    sanitizerUtil = new SanitizerUtil();
+    sanitizerUtil = new SanitizerUtil(10000, 1000);
   }
 
   @Test
@@ -155,4 +160,121 @@ class SanitizerUtilTest {
     // 驗證 - 相對路徑應返回空字符串
     assertEquals("", result);
   }
-}
\ No newline at end of file
+
+  @Test
+  void sanitize_plainText_skipsParserAndCache() {
+    // 準備
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    sanitizerUtil.bindTo(registry);
+    String plainText = "這是一則普通的留言 ok";
+
+    // 執行
+    String result = sanitizerUtil.sanitize(plainText);
+
+    // 驗證 - 直接返回原字串，不經過快取
+    assertSame(plainText, result);
+    assertEquals(0, registry.get("cache.gets").tag("cache", "sanitizer").functionCounters().stream()
+        .mapToDouble(FunctionCounter::count).sum());
+  }
+
+  @Test
+  void sanitize_repeatedInput_servedFromCache() {
+    // 準備
+    String input = "<b>+1</b>";
+
+    // 執行
+    String first = sanitizerUtil.sanitize(input);
+    String second = sanitizerUtil.sanitize(input);
+
+    // 驗證 - 第二次返回快取中的同一個結果
+    assertEquals("<b>&#43;1</b>", first);
+    assertSame(first, second);
+  }
+
+  @Test
+  void bindTo_reportsCacheMetrics() {
+    // 準備
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    sanitizerUtil.bindTo(registry);
+
+    // 執行
+    sanitizerUtil.sanitize("<b>+1</b>");
+    sanitizerUtil.sanitize("<b>+1</b>");
+
+    // 驗證
+    assertEquals(1, registry.get("cache.gets").tags("cache", "sanitizer", "result", "hit").functionCounter().count());
+    assertEquals(1, registry.get("cache.size").tag("cache", "sanitizer").gauge().value());
+  }
+
+  @Test
+  void isPlainText_onlyWhenPolicyLeavesInputUnchanged() {
+    // 準備 - 混合可能被淨化器轉換的字元
+    String alphabet = "ab 1{}\t\n\r+&<>\"'=@`中文，！\uff0c\u1fef\u00e9\u0000\ud83d\udc4d";
+    Random random = new Random(42);
+
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder builder = new StringBuilder();
+      int length = 1 + random.nextInt(12);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      String input = builder.toString();
+
+      // 驗證 - 判定為純文本的輸入，經淨化器處理後必須完全相同
+      if (SanitizerUtil.isPlainText(input)) {
+        assertEquals(SanitizerUtil.POLICY.sanitize(input), input);
+      }
+    }
+    assertFalse(SanitizerUtil.isPlainText("+1"));
+    assertFalse(SanitizerUtil.isPlainText("{{a}}"));
+    assertTrue(SanitizerUtil.isPlainText("中文 abc"));
+  }
+
+  @Test
+  void stripAllHtml_noTags_returnsSameInstance() {
+    // 準備
+    String plainText = "王小明 user@example.com";
+
+    // 執行 & 驗證 - 無標籤時不產生新字串
+    assertSame(plainText, sanitizerUtil.stripAllHtml(plainText));
+  }
+
+  @Test
+  void stripAllHtml_unbalancedBrackets_matchesRegexSemantics() {
+    assertEquals("a<b", sanitizerUtil.stripAllHtml("a<b"));
+    assertEquals("ac", sanitizerUtil.stripAllHtml("a<<b>c"));
+    assertEquals("a>b", sanitizerUtil.stripAllHtml("a>b"));
+    assertEquals("ab<c", sanitizerUtil.stripAllHtml("a<x>b<c"));
+    assertEquals("", sanitizerUtil.stripAllHtml("<>"));
+  }
+
+  @Test
+  void stripAllHtml_adversarialInput_runsInLinearTime() {
+    // 準備 - 大量不成對的 <，正則實作在此輸入上為平方時間
+    String adversarial = "<".repeat(200_000) + "x";
+
+    // 執行 & 驗證
+    String result = assertTimeoutPreemptively(Duration.ofSeconds(1),
+        () -> sanitizerUtil.stripAllHtml(adversarial));
+    assertEquals(adversarial, result);
+  }
+
+  @Test
+  void stripAllHtml_randomInput_matchesRegex() {
+    // 準備
+    String alphabet = "ab<>/ 中";
+    Random random = new Random(7);
+
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder builder = new StringBuilder();
+      int length = random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      String input = builder.toString();
+
+      // 驗證 - 與原本的正則實作結果相同
+      assertEquals(input.replaceAll("<[^>]*>", ""), sanitizerUtil.stripAllHtml(input), input);
+    }
+  }
+}
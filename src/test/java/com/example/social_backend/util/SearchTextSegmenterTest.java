@@ -0,0 +1,53 @@
+package com.example.social_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTextSegmenterTest {
+
+  @Test
+  void segment_splitsCjkCharactersAndKeepsLatinWords() {
+    // 執行
+    String segmented = SearchTextSegmenter.segment("我愛Spring框架");
+
+    // 驗證
+    assertEquals(" 我  愛 Spring 框  架 ", segmented);
+  }
+
+  @Test
+  void segment_removesHtmlTagsAndDecodesEntities() {
+    // 執行
+    String segmented = SearchTextSegmenter.segment("<a href=\"http://x\" rel=\"nofollow\">AT&amp;T</a>");
+
+    // 驗證 - 標籤及屬性不會被索引
+    assertFalse(segmented.contains("href"));
+    assertFalse(segmented.contains("nofollow"));
+    assertTrue(segmented.contains("AT&T"));
+  }
+
+  @Test
+  void segment_decodesNumericCharacterReferences() {
+    // 執行 - 淨化器輸出的數字字元參照
+    String segmented = SearchTextSegmenter.segment("me&#64;x a&#43;b &#34;q&#34; &#x60;t&#x60;");
+
+    // 驗證
+    assertEquals("me@x a+b \"q\" `t`", segmented);
+  }
+
+  @Test
+  void toMatchQuery_buildsQuotedPhrasesPerTerm() {
+    // 執行和驗證
+    assertEquals("\"台 灣\" \"美 食\"", SearchTextSegmenter.toMatchQuery("台灣 美食"));
+    assertEquals("\"spri\"*", SearchTextSegmenter.toMatchQuery("spri*"));
+    assertEquals("\"c\" \"NEAR\"", SearchTextSegmenter.toMatchQuery("c++ NEAR(\""));
+  }
+
+  @Test
+  void toMatchQuery_invalidInput_throwsException() {
+    assertThrows(IllegalArgumentException.class, () -> SearchTextSegmenter.toMatchQuery(null));
+    assertThrows(IllegalArgumentException.class, () -> SearchTextSegmenter.toMatchQuery("*** !!!"));
+    assertThrows(IllegalArgumentException.class, () -> SearchTextSegmenter.toMatchQuery("a".repeat(101)));
+    assertThrows(IllegalArgumentException.class, () -> SearchTextSegmenter.toMatchQuery("a b c d e f g h i j k"));
+  }
+}